@@ -1,24 +1,43 @@
 package com.todolist;
 
 import com.todolist.config.ModConfig;
+import com.todolist.network.BroadcastBenchmark;
+import com.todolist.network.BroadcastBatcher;
+import com.todolist.network.CodecBenchmark;
+import com.todolist.network.CompressedPayload;
+import com.todolist.network.PacketRateLimiter;
 import com.todolist.network.ProjectPackets;
+import com.todolist.network.ProjectSubscriptions;
 import com.todolist.network.TaskPackets;
+import com.todolist.network.ToggleCoalescer;
 import com.todolist.project.Project;
 import com.todolist.project.ProjectManager;
 import com.todolist.project.ProjectStorage;
 import com.todolist.project.ProjectSaveDebouncer;
+import com.todolist.storage.PlayerDataCache;
+import com.todolist.storage.StorageExecutor;
 import com.todolist.task.Task;
+import com.todolist.task.TaskRepository;
+import com.todolist.task.TaskSaveDebouncer;
 import com.todolist.task.TaskStorage;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.text.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Todo List Mod - Main Entry Point
@@ -37,8 +56,10 @@ public class TodoListMod implements ModInitializer {
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
 
     private static TaskStorage taskStorage;
+    private static TaskRepository taskRepository;
     private static ProjectStorage projectStorage;
     private static ProjectManager projectManager;
+    private static PlayerDataCache playerDataCache;
 
     @Override
     public void onInitialize() {
@@ -49,13 +70,15 @@ public class TodoListMod implements ModInitializer {
 
         // Initialize storage
         taskStorage = new TaskStorage();
+        taskRepository = new TaskRepository(taskStorage);
         projectStorage = new ProjectStorage();
         projectManager = new ProjectManager();
+        playerDataCache = new PlayerDataCache();
 
         // Load projects
         try {
-            // Load personal projects (singleplayer/server-global)
-            List<Project> projects = projectStorage.loadProjects();
+            // Load shared personal projects; owned ones are loaded per player on join
+            List<Project> projects = splitOwnedPersonalProjects(projectStorage.loadProjects());
             for (Project project : projects) {
                 projectManager.addProject(project);
             }
@@ -76,6 +99,9 @@ public class TodoListMod implements ModInitializer {
             LOGGER.error("Failed to load projects", e);
         }
 
+        // Per-player data residency (registered first so data is loaded before sync handlers run)
+        playerDataCache.register();
+
         // Register server-side network packets
         TaskPackets.registerServerPackets();
         ProjectPackets.registerServerPackets();
@@ -102,7 +128,52 @@ public class TodoListMod implements ModInitializer {
                                                         String applicantUuid = StringArgumentType.getString(ctx, "applicantUuid");
                                                         ProjectPackets.handleJoinDecision(ctx.getSource().getServer(), approver, projectId, applicantUuid, false);
                                                         return 1;
-                                                    }))))));
+                                                    })))))
+                    .then(CommandManager.literal("stats")
+                            .requires(source -> source.hasPermissionLevel(2))
+                            .executes(ctx -> {
+                                String io = String.format("Storage I/O: queue=%d done=%d failed=%d rejected=%d p50=%.1fms p95=%.1fms p99=%.1fms",
+                                        StorageExecutor.getQueueDepth(),
+                                        StorageExecutor.getCompletedCount(),
+                                        StorageExecutor.getFailedCount(),
+                                        StorageExecutor.getRejectedCount(),
+                                        StorageExecutor.getLatencyPercentileMillis(50),
+                                        StorageExecutor.getLatencyPercentileMillis(95),
+                                        StorageExecutor.getLatencyPercentileMillis(99));
+                                String saves = String.format("Task saves: %d requests, %d writes (%d coalesced)",
+                                        TaskSaveDebouncer.getRequestCount(),
+                                        TaskSaveDebouncer.getWriteCount(),
+                                        TaskSaveDebouncer.getCoalescedCount());
+                                long rawBytes = CompressedPayload.getRawBytes();
+                                long sentBytes = CompressedPayload.getSentBytes();
+                                String sync = String.format("Sync payloads: %d KB encoded, %d KB sent (%.0f%%)",
+                                        rawBytes / 1024, sentBytes / 1024, rawBytes == 0 ? 100.0 : sentBytes * 100.0 / rawBytes);
+                                String batches = String.format("Broadcasts: %d changes queued, %d flushes",
+                                        BroadcastBatcher.getQueuedCount(),
+                                        BroadcastBatcher.getFlushCount());
+                                ctx.getSource().sendFeedback(() -> Text.literal(io), false);
+                                ctx.getSource().sendFeedback(() -> Text.literal(saves), false);
+                                String limits = String.format("Client packets: %d accepted, %d rate limited %s; toggles: %d requested, %d applied (%d coalesced)",
+                                        PacketRateLimiter.getAllowedCount(),
+                                        PacketRateLimiter.getDroppedCount(),
+                                        PacketRateLimiter.describeDropped(),
+                                        ToggleCoalescer.getRequestCount(),
+                                        ToggleCoalescer.getAppliedCount(),
+                                        ToggleCoalescer.getCoalescedCount());
+                                ctx.getSource().sendFeedback(() -> Text.literal(sync), false);
+                                ctx.getSource().sendFeedback(() -> Text.literal(limits), false);
+                                ctx.getSource().sendFeedback(() -> Text.literal(batches), false);
+                                return 1;
+                            }))
+                    .then(CommandManager.literal("bench")
+                            .requires(source -> source.hasPermissionLevel(2))
+                            .executes(ctx -> runBroadcastBenchmark(ctx.getSource(), 2000))
+                            .then(CommandManager.literal("codec")
+                                    .executes(ctx -> runCodecBenchmark(ctx.getSource(), 2000))
+                                    .then(CommandManager.argument("tasks", IntegerArgumentType.integer(1, 100000))
+                                            .executes(ctx -> runCodecBenchmark(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "tasks")))))
+                            .then(CommandManager.argument("tasks", IntegerArgumentType.integer(1, 100000))
+                                    .executes(ctx -> runBroadcastBenchmark(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "tasks"))))));
         });
 
         // Register server lifecycle events
@@ -112,6 +183,72 @@ public class TodoListMod implements ModInitializer {
         LOGGER.info("Todo List Mod loaded successfully!");
     }
     
+    /**
+     * Run a benchmark off the server thread and report back in chat
+     */
+    private static int runBroadcastBenchmark(ServerCommandSource source, int taskCount) {
+        source.sendFeedback(() -> Text.literal("Running broadcast benchmark with " + taskCount + " tasks..."), false);
+        return reportBenchmark(source, CompletableFuture.supplyAsync(() -> BroadcastBenchmark.run(taskCount)));
+    }
+
+    private static int runCodecBenchmark(ServerCommandSource source, int taskCount) {
+        source.sendFeedback(() -> Text.literal("Running codec benchmark with " + taskCount + " tasks..."), false);
+        return reportBenchmark(source, CompletableFuture.supplyAsync(() -> CodecBenchmark.run(taskCount)));
+    }
+
+    private static int reportBenchmark(ServerCommandSource source, CompletableFuture<List<String>> result) {
+        result.whenCompleteAsync((lines, error) -> {
+            if (error != null) {
+                LOGGER.error("Benchmark failed", error);
+                source.sendError(Text.literal("Benchmark failed: " + error.getMessage()));
+                return;
+            }
+            for (String line : lines) {
+                source.sendFeedback(() -> Text.literal(line), false);
+            }
+        }, source.getServer());
+        return 1;
+    }
+
+    /**
+     * Move personal projects with an owner out of the shared projects.dat into the owner's
+     * players/{uuid}.dat, returning the projects that stay shared
+     */
+    private List<Project> splitOwnedPersonalProjects(List<Project> projects) {
+        List<Project> shared = new ArrayList<>();
+        Map<String, List<Project>> owned = new HashMap<>();
+        for (Project project : projects) {
+            String owner = project.getOwnerUuid();
+            if (owner == null || owner.isEmpty()) {
+                shared.add(project);
+            } else {
+                owned.computeIfAbsent(owner, k -> new ArrayList<>()).add(project);
+            }
+        }
+        if (owned.isEmpty()) {
+            return shared;
+        }
+
+        try {
+            for (Map.Entry<String, List<Project>> entry : owned.entrySet()) {
+                UUID ownerUuid = UUID.fromString(entry.getKey());
+                List<Project> existing = projectStorage.loadPlayerProjects(ownerUuid);
+                for (Project project : entry.getValue()) {
+                    if (existing.stream().noneMatch(p -> p.getId().equals(project.getId()))) {
+                        existing.add(project);
+                    }
+                }
+                projectStorage.savePlayerProjects(ownerUuid, existing);
+            }
+            projectStorage.saveProjects(shared);
+            LOGGER.info("Moved personal projects of {} players into per-player files", owned.size());
+            return shared;
+        } catch (Exception e) {
+            LOGGER.error("Failed to split personal projects per player, keeping them shared", e);
+            return projects;
+        }
+    }
+
     private void performMigration() {
         // 1. Check if we need to create default projects
         if (projectManager.getAllProjects().isEmpty()) {
@@ -219,18 +356,38 @@ public class TodoListMod implements ModInitializer {
 
     private void onServerStarting(MinecraftServer server) {
         LOGGER.info("Todo List Mod: Server starting, initializing storage...");
-        // Server-specific initialization
+        try {
+            int count = taskRepository.getTeamTasks().getTaskCount();
+            LOGGER.info("Loaded {} team tasks into memory", count);
+        } catch (Exception e) {
+            LOGGER.error("Failed to load team tasks", e);
+        }
     }
 
     private void onServerStopped(MinecraftServer server) {
         LOGGER.info("Todo List Mod: Server stopped, saving data...");
+        // A full storage queue would defer the final saves; let it drain first
+        if (!StorageExecutor.hasCapacity()) {
+            StorageExecutor.awaitIdle(30_000);
+        }
         ProjectSaveDebouncer.flushNow(server);
+        TaskSaveDebouncer.flushNow(server);
+        taskRepository.clear();
+        playerDataCache.clear();
+        ProjectSubscriptions.clear();
+        PacketRateLimiter.clear();
+        ToggleCoalescer.clear();
+        BroadcastBatcher.clear();
     }
 
     public static TaskStorage getTaskStorage() {
         return taskStorage;
     }
 
+    public static TaskRepository getTaskRepository() {
+        return taskRepository;
+    }
+
     public static ProjectStorage getProjectStorage() {
         return projectStorage;
     }
@@ -238,4 +395,8 @@ public class TodoListMod implements ModInitializer {
     public static ProjectManager getProjectManager() {
         return projectManager;
     }
+
+    public static PlayerDataCache getPlayerDataCache() {
+        return playerDataCache;
+    }
 }
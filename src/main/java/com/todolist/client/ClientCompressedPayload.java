@@ -0,0 +1,51 @@
+package com.todolist.client;
+
+import com.todolist.TodoListMod;
+import com.todolist.network.CompressedPayload;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client side of the compressed sync envelope
+ *
+ * Channels registered through here accept their payload either plain or wrapped in the
+ * compressed channel; registering the compressed channel is what tells the server this client
+ * can inflate.
+ */
+public final class ClientCompressedPayload {
+    // Only filled during client init, read from the network thread afterwards
+    private static final Map<Identifier, ClientPlayNetworking.PlayChannelHandler> handlers = new HashMap<>();
+
+    private ClientCompressedPayload() {}
+
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(CompressedPayload.COMPRESSED_ID, (client, handler, buf, responseSender) -> {
+            Identifier channel = buf.readIdentifier();
+            ClientPlayNetworking.PlayChannelHandler target = handlers.get(channel);
+            if (target == null) {
+                TodoListMod.LOGGER.warn("Dropping compressed payload for unknown channel {}", channel);
+                return;
+            }
+            PacketByteBuf payload;
+            try {
+                payload = CompressedPayload.read(buf);
+            } catch (Exception e) {
+                TodoListMod.LOGGER.error("Failed to read compressed payload for {}", channel, e);
+                return;
+            }
+            target.receive(client, handler, payload, responseSender);
+        });
+    }
+
+    /**
+     * Register a receiver that also accepts compressed payloads for its channel
+     */
+    public static void registerReceiver(Identifier channel, ClientPlayNetworking.PlayChannelHandler receiver) {
+        handlers.put(channel, receiver);
+        ClientPlayNetworking.registerGlobalReceiver(channel, receiver);
+    }
+}
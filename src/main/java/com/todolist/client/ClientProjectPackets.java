@@ -19,9 +19,12 @@ public class ClientProjectPackets {
 
     public static void registerClientPackets() {
         // SYNC_PROJECTS
-        ClientPlayNetworking.registerGlobalReceiver(ProjectPackets.SYNC_PROJECTS_ID, (client, handler, buf, responseSender) -> {
+        ClientCompressedPayload.registerReceiver(ProjectPackets.SYNC_PROJECTS_ID, (client, handler, buf, responseSender) -> {
             List<Project> projects = ProjectPackets.readProjectList(buf);
-            client.execute(() -> handleSyncProjects(projects));
+            client.execute(() -> {
+                PlayerNameCache.onProjectsSynced(projects);
+                handleSyncProjects(projects);
+            });
         });
     }
 
@@ -50,6 +53,18 @@ public class ClientProjectPackets {
 
     // Sender methods
 
+    /**
+     * Tell the server which team project is open so it keeps sending that project's updates
+     */
+    public static void sendViewProject(String projectId) {
+        if (!ClientPlayNetworking.canSend(ProjectPackets.VIEW_PROJECT_ID)) {
+            return;
+        }
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        buf.writeString(projectId == null ? "" : projectId);
+        ClientPlayNetworking.send(ProjectPackets.VIEW_PROJECT_ID, buf);
+    }
+
     public static void sendAddProject(Project project) {
         if (!ClientPlayNetworking.canSend(ProjectPackets.ADD_PROJECT_ID)) {
             return;
@@ -1,33 +1,99 @@
 package com.todolist.client;
 
 import com.todolist.TodoListMod;
+import com.todolist.network.ChunkedSync;
 import com.todolist.network.TaskPackets;
+import com.todolist.network.TaskPatch;
 import com.todolist.task.Task;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.network.PacketByteBuf;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ClientTaskPackets {
+    // Personal tasks received so far from a chunked sync
+    private static List<Task> pendingPersonalSync = null;
+    // Last known server state of the personal tasks by id; base for patches
+    private static final Map<String, Task> serverTasks = new HashMap<>();
+
     public static void registerClientPackets() {
-        ClientPlayNetworking.registerGlobalReceiver(TaskPackets.SYNC_TASKS_ID, (client, handler, buf, responseSender) -> {
-            List<Task> tasks = TaskPackets.readTaskList(buf);
+        // Advertises the compact task codec; the channel itself carries nothing
+        ClientPlayNetworking.registerGlobalReceiver(TaskPackets.CODEC_V2_ID, (client, handler, buf, responseSender) -> {
+        });
+
+        ClientCompressedPayload.registerReceiver(TaskPackets.SYNC_TASKS_ID, (client, handler, buf, responseSender) -> {
+            List<Task> tasks = TaskPackets.readServerTaskList(buf);
             client.execute(() -> {
+                // A full sync supersedes any chunked sync still in progress
+                pendingPersonalSync = null;
+                rememberServerTasks(tasks, true);
                 try {
                     TodoListMod.getTaskStorage().saveTasks(tasks);
                     TodoListMod.LOGGER.info("Received {} tasks from server, saved to local storage", tasks.size());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to save synced tasks on client", e);
                 }
+                TodoClient.updatePersonalTasks(tasks);
+            });
+        });
+
+        ClientPlayNetworking.registerGlobalReceiver(TaskPackets.TASK_REVISION_ID, (client, handler, buf, responseSender) -> {
+            String taskId = buf.readString();
+            long revision = buf.readVarLong();
+            client.execute(() -> {
+                Task base = serverTasks.get(taskId);
+                if (base != null && revision > base.getRevision()) {
+                    base.setRevision(revision);
+                }
             });
         });
 
-        ClientPlayNetworking.registerGlobalReceiver(TaskPackets.TEAM_SYNC_TASKS_ID, (client, handler, buf, responseSender) -> {
-            List<Task> tasks = TaskPackets.readTaskList(buf);
+        ClientCompressedPayload.registerReceiver(TaskPackets.TEAM_SYNC_TASKS_ID, (client, handler, buf, responseSender) -> {
+            long revision = buf.readVarLong();
+            List<Task> tasks = TaskPackets.readServerTaskList(buf);
             client.execute(() -> {
-                TodoClient.updateTeamTasksFromServer(tasks);
-                TodoListMod.LOGGER.info("Received {} team tasks from server", tasks.size());
+                TodoClient.updateTeamTasksFromServer(revision, tasks);
+                TodoListMod.LOGGER.info("Received {} team tasks from server (revision {})", tasks.size(), revision);
+            });
+        });
+
+        ClientCompressedPayload.registerReceiver(TaskPackets.TEAM_DELTA_TASKS_ID, (client, handler, buf, responseSender) -> {
+            long baseRevision = buf.readVarLong();
+            long revision = buf.readVarLong();
+            String resetProjectId = buf.readBoolean() ? buf.readString() : null;
+            List<Task> changed = TaskPackets.readServerTaskList(buf);
+            int removedCount = buf.readVarInt();
+            List<String> removedIds = new ArrayList<>(removedCount);
+            for (int i = 0; i < removedCount; i++) {
+                removedIds.add(buf.readString());
+            }
+            client.execute(() -> {
+                if (!TodoClient.applyTeamDelta(baseRevision, revision, resetProjectId, changed, removedIds)) {
+                    TodoListMod.LOGGER.info("Team task revision gap (base {}), requesting full sync", baseRevision);
+                    requestTeamSync();
+                }
+            });
+        });
+
+        ClientCompressedPayload.registerReceiver(ChunkedSync.SYNC_CHUNK_ID, (client, handler, buf, responseSender) -> {
+            byte kind = buf.readByte();
+            long revision = buf.readVarLong();
+            int index = buf.readVarInt();
+            boolean last = buf.readBoolean();
+            List<Task> tasks = TaskPackets.readServerTaskList(buf);
+            client.execute(() -> {
+                if (kind == ChunkedSync.KIND_TEAM) {
+                    TodoClient.applyTeamSyncChunk(revision, index, tasks);
+                } else {
+                    applyPersonalSyncChunk(index, last, tasks);
+                }
+                if (last) {
+                    TodoListMod.LOGGER.info("Chunked {} task sync complete after {} chunks", kind == ChunkedSync.KIND_TEAM ? "team" : "personal", index + 1);
+                }
             });
         });
 
@@ -42,16 +108,127 @@ public class ClientTaskPackets {
         });
     }
 
+    /**
+     * Collect a chunked personal sync. The first chunk (open tasks by priority) is shown right
+     * away so the HUD has data, but only the complete list is stored, and personal saves are
+     * refused until it has arrived (see isPersonalSyncInProgress).
+     */
+    private static void applyPersonalSyncChunk(int index, boolean last, List<Task> tasks) {
+        if (index == 0) {
+            pendingPersonalSync = new ArrayList<>();
+        } else if (pendingPersonalSync == null) {
+            return;
+        }
+        pendingPersonalSync.addAll(tasks);
+        rememberServerTasks(tasks, index == 0);
+        if (!last) {
+            if (index == 0) {
+                TodoClient.updatePersonalTasks(new ArrayList<>(pendingPersonalSync));
+            }
+            return;
+        }
+        try {
+            TodoListMod.getTaskStorage().saveTasks(pendingPersonalSync);
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to save synced tasks on client", e);
+        }
+        TodoClient.updatePersonalTasks(pendingPersonalSync);
+        pendingPersonalSync = null;
+    }
+
+    /**
+     * Whether a chunked personal sync is still arriving, i.e. the personal list is partial.
+     * Saving it would make the server drop every task not received yet.
+     */
+    public static boolean isPersonalSyncInProgress() {
+        return pendingPersonalSync != null;
+    }
+
+    /**
+     * The compact codec is sent when the server registered it too. Our registration reaches the
+     * server before any of our packets, so it always decodes them correctly; lists coming from
+     * the server carry their own tag instead (see TaskPackets.readServerTaskList).
+     */
+    private static boolean compactCodec() {
+        return ClientPlayNetworking.canSend(TaskPackets.CODEC_V2_ID);
+    }
+
+    private static void rememberServerTasks(List<Task> tasks, boolean replace) {
+        if (replace) {
+            serverTasks.clear();
+        }
+        for (Task task : tasks) {
+            serverTasks.put(task.getId(), task.copy());
+        }
+    }
+
+    public static void clearServerTasks() {
+        serverTasks.clear();
+        pendingPersonalSync = null;
+    }
+
+    /**
+     * Patches need the server to support them and to tell us task revisions (compact codec)
+     */
+    private static boolean canPatch() {
+        return compactCodec() && ClientPlayNetworking.canSend(TaskPackets.PATCH_TASK_ID);
+    }
+
+    /**
+     * Send the personal list to the server. When only fields of known tasks changed, each
+     * changed task goes out as a patch; otherwise the whole list is replaced.
+     */
+    public static void sendPersonalChanges(List<Task> tasks) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.getNetworkHandler() == null) {
+            return;
+        }
+        if (isPersonalSyncInProgress()) {
+            TodoListMod.LOGGER.warn("Not sending personal tasks while the server list is still arriving");
+            return;
+        }
+        if (!canPatch() || tasks.size() != serverTasks.size()) {
+            sendReplaceAllTasks(tasks);
+            return;
+        }
+        List<TaskPatch> patches = new ArrayList<>();
+        for (Task task : tasks) {
+            Task base = serverTasks.get(task.getId());
+            if (base == null || TaskPatch.needsFullUpdate(base, task)) {
+                sendReplaceAllTasks(tasks);
+                return;
+            }
+            TaskPatch patch = TaskPatch.diff(base, task);
+            if (patch != null) {
+                patches.add(patch);
+            }
+        }
+        for (TaskPatch patch : patches) {
+            sendPatch(patch);
+        }
+    }
+
+    private static void sendPatch(TaskPatch patch) {
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        patch.write(buf);
+        ClientPlayNetworking.send(TaskPackets.PATCH_TASK_ID, buf);
+        // The server bumps the revision by one per applied patch, so follow-up patches can be
+        // sent before the acknowledgement arrives
+        Task base = serverTasks.get(patch.getTaskId());
+        patch.applyTo(base);
+        base.setRevision(base.getRevision() + 1);
+    }
+
     public static void sendReplaceAllTasks(List<Task> tasks) {
         MinecraftClient client = MinecraftClient.getInstance();
         if (client == null || client.getNetworkHandler() == null) {
             return;
         }
-        if (!ClientPlayNetworking.canSend(TaskPackets.REPLACE_TASKS_ID)) {
+        if (!ClientPlayNetworking.canSend(TaskPackets.REPLACE_TASKS_ID) || isPersonalSyncInProgress()) {
             return;
         }
         PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        TaskPackets.writeTaskList(buf, tasks);
+        TaskPackets.writeTaskList(buf, tasks, compactCodec());
         ClientPlayNetworking.send(TaskPackets.REPLACE_TASKS_ID, buf);
     }
 
@@ -64,10 +241,48 @@ public class ClientTaskPackets {
             return;
         }
         PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        TaskPackets.writeTaskList(buf, tasks);
+        TaskPackets.writeTaskList(buf, tasks, compactCodec());
         ClientPlayNetworking.send(TaskPackets.TEAM_REPLACE_TASKS_ID, buf);
     }
 
+    /**
+     * Save the team list: only tasks that differ from the last server state are sent, each with
+     * the revision it was based on. Adding or removing tasks still replaces the whole list.
+     */
+    public static void sendTeamChanges(List<Task> tasks) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.getNetworkHandler() == null) {
+            return;
+        }
+        if (!compactCodec() || !ClientPlayNetworking.canSend(TaskPackets.TEAM_SAVE_CHANGES_ID)
+                || tasks.size() != TodoClient.getTeamServerTaskCount()) {
+            sendReplaceTeamTasks(tasks);
+            return;
+        }
+        List<Task> dirty = new ArrayList<>();
+        for (Task task : tasks) {
+            Task base = TodoClient.getTeamServerTask(task.getId());
+            if (base == null) {
+                sendReplaceTeamTasks(tasks);
+                return;
+            }
+            if (TaskPatch.diff(base, task) != null || TaskPatch.needsFullUpdate(base, task)
+                    || !java.util.Objects.equals(base.getAssigneeUuid(), task.getAssigneeUuid())) {
+                dirty.add(task);
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        buf.writeVarInt(dirty.size());
+        for (Task task : dirty) {
+            buf.writeVarLong(TodoClient.getTeamServerTask(task.getId()).getRevision());
+            TaskPackets.writeTask(buf, task, true);
+        }
+        ClientPlayNetworking.send(TaskPackets.TEAM_SAVE_CHANGES_ID, buf);
+    }
+
     public static void requestTeamSync() {
         MinecraftClient client = MinecraftClient.getInstance();
         if (client == null || client.getNetworkHandler() == null) {
@@ -92,7 +307,7 @@ public class ClientTaskPackets {
             return;
         }
         PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        TaskPackets.writeTask(buf, task);
+        TaskPackets.writeTask(buf, task, compactCodec());
         ClientPlayNetworking.send(TaskPackets.ADD_TASK_ID, buf);
     }
 
@@ -104,11 +319,19 @@ public class ClientTaskPackets {
         if (client == null || client.getNetworkHandler() == null) {
             return;
         }
+        Task base = serverTasks.get(task.getId());
+        if (canPatch() && base != null && !TaskPatch.needsFullUpdate(base, task)) {
+            TaskPatch patch = TaskPatch.diff(base, task);
+            if (patch != null) {
+                sendPatch(patch);
+            }
+            return;
+        }
         if (!ClientPlayNetworking.canSend(TaskPackets.UPDATE_TASK_ID)) {
             return;
         }
         PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        TaskPackets.writeTask(buf, task);
+        TaskPackets.writeTask(buf, task, compactCodec());
         ClientPlayNetworking.send(TaskPackets.UPDATE_TASK_ID, buf);
     }
 
@@ -0,0 +1,94 @@
+package com.todolist.client;
+
+import com.mojang.authlib.GameProfile;
+import com.todolist.project.Project;
+import com.todolist.task.Task;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Player names by UUID string for assignee display
+ *
+ * Fed by player list additions (see ClientPlayNetworkHandlerMixin) and by project member names
+ * from project syncs. Names stay after a player leaves, so offline assignees keep their last
+ * known name; callers fall back to Task.getAssigneeName() for players never seen.
+ * Client thread only.
+ */
+public final class PlayerNameCache {
+    private static final Map<String, String> names = new HashMap<>();
+    // Bumped whenever a name is added or changes, so cached text can tell when to rebuild
+    private static int version = 0;
+
+    private PlayerNameCache() {}
+
+    /**
+     * A player joined the player list; their current name wins over any known one
+     */
+    public static void onPlayerAdded(GameProfile profile) {
+        if (profile == null || profile.getId() == null) {
+            return;
+        }
+        String name = profile.getName();
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        String previous = names.put(profile.getId().toString(), name);
+        if (!name.equals(previous)) {
+            version++;
+        }
+    }
+
+    /**
+     * Member names from synced projects; only fill in players not seen in the player list
+     */
+    public static void onProjectsSynced(List<Project> projects) {
+        for (Project project : projects) {
+            for (Map.Entry<String, String> member : project.getMemberNames().entrySet()) {
+                String name = member.getValue();
+                if (member.getKey() != null && name != null && !name.isEmpty()
+                        && names.putIfAbsent(member.getKey(), name) == null) {
+                    version++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Known name for a UUID string, or null
+     */
+    public static String getName(String uuid) {
+        return uuid == null ? null : names.get(uuid);
+    }
+
+    /**
+     * Display name of a task's assignee, or null if unassigned. Falls back to the name stored
+     * on the task and refreshes that name when the cache knows a newer one.
+     */
+    public static String getAssigneeName(Task task) {
+        String assigneeUuid = task.getAssigneeUuid();
+        if (assigneeUuid == null || assigneeUuid.isEmpty()) {
+            return null;
+        }
+        String name = names.get(assigneeUuid);
+        if (name == null) {
+            return task.getAssigneeName();
+        }
+        if (!name.equals(task.getAssigneeName())) {
+            task.setAssigneeName(name);
+        }
+        return name;
+    }
+
+    public static int getVersion() {
+        return version;
+    }
+
+    public static void clear() {
+        if (!names.isEmpty()) {
+            names.clear();
+            version++;
+        }
+    }
+}
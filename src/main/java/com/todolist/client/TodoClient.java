@@ -2,6 +2,7 @@ package com.todolist.client;
 
 import com.todolist.TodoListMod;
 import com.todolist.config.ModConfig;
+import com.todolist.gui.EllipsisCache;
 import com.todolist.gui.TodoScreen;
 import com.todolist.network.ProjectPackets;
 import com.todolist.task.Task;
@@ -30,7 +31,16 @@ public class TodoClient implements ClientModInitializer {
     private static KeyBinding toggleHudKeyBinding;
     private static MinecraftClient client;
     private static TodoHudRenderer hudRenderer;
+    // Personal tasks as stored locally; the HUD listens to it, the screen edits a copy
+    private static final TaskManager personalTaskManager = new TaskManager();
     private static final TaskManager teamTaskManager = new TaskManager();
+    // Team tasks as last received from the server (the screen edits teamTaskManager in place)
+    private static final java.util.Map<String, Task> teamServerTasks = new java.util.HashMap<>();
+    // Last team revision applied; -1 until the first full sync
+    private static long teamRevision = -1;
+    private static boolean teamResyncRequested = false;
+    // Revision of the chunked team sync in progress, -1 if none
+    private static long teamChunkRevision = -1;
     private static String activeProjectId;
 
     @Override
@@ -42,6 +52,9 @@ public class TodoClient implements ClientModInitializer {
         // Register key bindings
         registerKeyBindings();
 
+        loadPersonalTasks();
+        EllipsisCache.register();
+
         // Register HUD renderer (Phase 2 feature)
         try {
             if (ModConfig.getInstance().isEnableHud()) {
@@ -51,6 +64,7 @@ public class TodoClient implements ClientModInitializer {
             TodoListMod.LOGGER.warn("Failed to initialize HUD renderer", e);
         }
 
+        ClientCompressedPayload.register();
         ClientTaskPackets.registerClientPackets();
         ClientProjectPackets.registerClientPackets();
 
@@ -104,8 +118,19 @@ public class TodoClient implements ClientModInitializer {
     }
 
     private void registerJoinEvent() {
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            teamRevision = -1;
+            teamResyncRequested = false;
+            teamChunkRevision = -1;
+            teamServerTasks.clear();
+            ClientTaskPackets.clearServerTasks();
+            PlayerNameCache.clear();
+        });
         ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
             TodoListMod.LOGGER.info("Joined server, requesting task sync...");
+            if (activeProjectId != null) {
+                ClientProjectPackets.sendViewProject(activeProjectId);
+            }
             // Request task sync from server (to be implemented in Phase 3)
         });
     }
@@ -122,23 +147,124 @@ public class TodoClient implements ClientModInitializer {
         }
     }
 
+    private static void loadPersonalTasks() {
+        try {
+            personalTaskManager.addTasks(TodoListMod.getTaskStorage().loadTasks());
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to load personal tasks", e);
+        }
+    }
+
+    public static TaskManager getPersonalTaskManager() {
+        return personalTaskManager;
+    }
+
+    /**
+     * Replace the personal tasks after a new list was stored locally (server sync or a save in the screen)
+     */
+    public static void updatePersonalTasks(java.util.List<Task> tasks) {
+        personalTaskManager.clearAll();
+        personalTaskManager.addTasks(tasks);
+    }
+
     public static TaskManager getTeamTaskManager() {
         return teamTaskManager;
     }
 
+    /**
+     * Server state of a team task, the base for saving local edits; null if unknown
+     */
+    public static Task getTeamServerTask(String taskId) {
+        return teamServerTasks.get(taskId);
+    }
+
+    public static int getTeamServerTaskCount() {
+        return teamServerTasks.size();
+    }
+
     public static String getActiveProjectId() {
         return activeProjectId;
     }
 
     public static void setActiveProjectId(String projectId) {
+        if (!java.util.Objects.equals(activeProjectId, projectId)) {
+            ClientProjectPackets.sendViewProject(projectId);
+        }
         activeProjectId = projectId;
     }
 
-    public static void updateTeamTasksFromServer(java.util.List<Task> tasks) {
+    public static void updateTeamTasksFromServer(long revision, java.util.List<Task> tasks) {
         teamTaskManager.clearAll();
+        teamServerTasks.clear();
         for (Task task : tasks) {
             teamTaskManager.addTask(task);
+            teamServerTasks.put(task.getId(), task.copy());
+        }
+        teamRevision = revision;
+        teamResyncRequested = false;
+        teamChunkRevision = -1;
+    }
+
+    /**
+     * Apply one chunk of a chunked team sync. The first chunk replaces the list and sets the
+     * revision, so deltas sent meanwhile apply on top; later chunks add the remaining tasks.
+     */
+    public static void applyTeamSyncChunk(long revision, int index, java.util.List<Task> tasks) {
+        if (index == 0) {
+            updateTeamTasksFromServer(revision, tasks);
+            teamChunkRevision = revision;
+            return;
+        }
+        if (revision != teamChunkRevision) {
+            return;
+        }
+        for (Task task : tasks) {
+            if (teamTaskManager.getTask(task.getId()) != null) {
+                teamTaskManager.updateTask(task);
+            } else {
+                teamTaskManager.addTask(task);
+            }
+            teamServerTasks.put(task.getId(), task.copy());
+        }
+    }
+
+    /**
+     * Apply one team revision step. Returns false if a revision was missed and a full
+     * sync should be requested (only once until it arrives).
+     */
+    public static boolean applyTeamDelta(long baseRevision, long revision, String resetProjectId,
+                                         java.util.List<Task> changed, java.util.List<String> removedIds) {
+        if (revision <= teamRevision) {
+            // Already covered by a newer full sync
+            return true;
+        }
+        if (baseRevision != teamRevision) {
+            if (teamResyncRequested) {
+                return true;
+            }
+            teamResyncRequested = true;
+            return false;
+        }
+        if (resetProjectId != null) {
+            for (Task task : teamTaskManager.getTasksByProject(resetProjectId)) {
+                teamTaskManager.deleteTask(task.getId());
+                teamServerTasks.remove(task.getId());
+            }
+        }
+        for (Task task : changed) {
+            if (teamTaskManager.getTask(task.getId()) != null) {
+                teamTaskManager.updateTask(task);
+            } else {
+                teamTaskManager.addTask(task);
+            }
+            teamServerTasks.put(task.getId(), task.copy());
+        }
+        for (String id : removedIds) {
+            teamTaskManager.deleteTask(id);
+            teamServerTasks.remove(id);
         }
+        teamRevision = revision;
+        return true;
     }
 
     public static KeyBinding getOpenTodoKeyBinding() {
@@ -2,16 +2,20 @@ package com.todolist.client;
 
 import com.todolist.TodoListMod;
 import com.todolist.config.ModConfig;
+import com.todolist.gui.EllipsisCache;
 import com.todolist.task.Task;
 import com.todolist.task.TaskManager;
-import com.todolist.task.TaskStorage;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.resource.language.I18n;
+import net.minecraft.text.OrderedText;
 import net.minecraft.text.Text;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -28,29 +32,32 @@ public class TodoHudRenderer {
     private static final int TASK_DISPLAY_LIMIT = 5;
 
     private final MinecraftClient client;
-    private TaskManager taskManager;
-    private TaskStorage taskStorage;
 
     private boolean expanded;
 
+    // Lines drawn every frame, rebuilt only after a change event or when an input below changes.
+    // Project events may arrive from the integrated server thread.
+    private volatile boolean modelDirty = true;
+    private int modelConfigRevision = -1;
+    private boolean modelExpanded;
+    private boolean modelSingleplayer;
+    private boolean modelTeamEnabled;
+    private String modelActiveProjectId;
+    private String modelLanguage;
+    private UUID modelPlayer;
+    private int modelNamesVersion = -1;
+    private int modelFontGeneration = -1;
+
+    private final List<HudLine> lines = new ArrayList<>();
+    private int panelHeight;
+    private boolean hidden;
+
     public TodoHudRenderer(MinecraftClient client) {
         this.client = client;
         this.expanded = ModConfig.getInstance().isHudDefaultExpanded();
-        initializeTaskManager();
-    }
-
-    private void initializeTaskManager() {
-        try {
-            this.taskStorage = TodoListMod.getTaskStorage();
-            this.taskManager = new TaskManager();
-            List<Task> loadedTasks = taskStorage.loadTasks();
-            for (Task task : loadedTasks) {
-                taskManager.addTask(task);
-            }
-        } catch (Exception e) {
-            TodoListMod.LOGGER.error("Failed to load tasks for HUD", e);
-            this.taskManager = new TaskManager();
-        }
+        TodoClient.getPersonalTaskManager().addListener((type, task) -> modelDirty = true);
+        TodoClient.getTeamTaskManager().addListener((type, task) -> modelDirty = true);
+        TodoListMod.getProjectManager().addListener((type, project) -> modelDirty = true);
     }
 
     /**
@@ -65,12 +72,8 @@ public class TodoHudRenderer {
             return;
         }
 
-        refreshTasksIfNeeded();
-
-        List<Task> baseTasks = getBaseTasksForView();
-        baseTasks = filterTasksByProjectSource(baseTasks);
-        List<Task> displayTasks = getDisplayTasks(baseTasks);
-        if (displayTasks.isEmpty() && !ModConfig.getInstance().isHudShowWhenEmpty()) {
+        refreshModelIfNeeded();
+        if (hidden) {
             return;
         }
 
@@ -86,7 +89,64 @@ public class TodoHudRenderer {
             y = getY(position);
         }
 
+        drawBackgroundPanel(context, x, y, cfg.getHudWidth(), panelHeight);
+
         TextRenderer textRenderer = client.textRenderer;
+        int currentY = y + HUD_PADDING;
+        for (int i = 0; i < lines.size(); i++) {
+            HudLine line = lines.get(i);
+            context.drawText(textRenderer, line.text, x + HUD_PADDING, currentY, line.color, true);
+            currentY += line.advance;
+        }
+    }
+
+    /**
+     * Rebuild the line model if tasks or projects changed, or anything else the lines depend on:
+     * config, expanded state, view availability, active project, language, player, known names and fonts
+     */
+    private void refreshModelIfNeeded() {
+        int configRevision = ModConfig.getRevision();
+        boolean singleplayer = client.isInSingleplayer();
+        boolean teamEnabled = TodoClient.isTeamProjectsEnabled();
+        String activeProjectId = TodoClient.getActiveProjectId();
+        String language = client.getLanguageManager().getLanguage();
+        UUID player = client.player.getUuid();
+        int namesVersion = PlayerNameCache.getVersion();
+        int fontGeneration = EllipsisCache.getGeneration();
+        if (!modelDirty
+                && configRevision == modelConfigRevision
+                && expanded == modelExpanded
+                && singleplayer == modelSingleplayer
+                && teamEnabled == modelTeamEnabled
+                && Objects.equals(activeProjectId, modelActiveProjectId)
+                && Objects.equals(language, modelLanguage)
+                && player.equals(modelPlayer)
+                && namesVersion == modelNamesVersion
+                && fontGeneration == modelFontGeneration) {
+            return;
+        }
+        modelDirty = false;
+        modelConfigRevision = configRevision;
+        modelExpanded = expanded;
+        modelSingleplayer = singleplayer;
+        modelTeamEnabled = teamEnabled;
+        modelActiveProjectId = activeProjectId;
+        modelLanguage = language;
+        modelPlayer = player;
+        modelNamesVersion = namesVersion;
+        modelFontGeneration = fontGeneration;
+        rebuildModel();
+    }
+
+    private void rebuildModel() {
+        lines.clear();
+        List<Task> baseTasks = filterTasksByProjectSource(getBaseTasksForView());
+        List<Task> displayTasks = getDisplayTasks(baseTasks);
+        ModConfig cfg = ModConfig.getInstance();
+        hidden = displayTasks.isEmpty() && !cfg.isHudShowWhenEmpty();
+        if (hidden) {
+            return;
+        }
 
         int incompleteCount = 0;
         int completedCount = 0;
@@ -98,189 +158,98 @@ public class TodoHudRenderer {
             }
         }
 
-        if (expanded) {
-            int todoLimit = ModConfig.getInstance().getHudTodoLimit();
-            int doneLimit = ModConfig.getInstance().getHudDoneLimit();
-            int totalLines = 2;
-            totalLines += Math.min(incompleteCount, todoLimit);
-            if (completedCount > 0 && ModConfig.getInstance().isShowCompletedTasks()) {
-                totalLines += 1 + Math.min(completedCount, doneLimit);
-            }
-            int height = HUD_PADDING * 2 + LINE_HEIGHT * totalLines;
-            int maxHeight = ModConfig.getInstance().getHudMaxHeight();
-            if (height > maxHeight) {
-                height = maxHeight;
+        if (!expanded) {
+            panelHeight = HUD_PADDING * 2 + LINE_HEIGHT;
+            String summaryCore;
+            if (completedCount > 0) {
+                summaryCore = I18n.translate("hud.todolist.summary.with_completed",
+                        Integer.toString(incompleteCount), Integer.toString(completedCount));
+            } else {
+                summaryCore = I18n.translate("hud.todolist.summary", Integer.toString(incompleteCount));
             }
-            int hudWidth = ModConfig.getInstance().getHudWidth();
-            drawBackgroundPanel(context, x, y, hudWidth, height);
-
-            // Draw header
-            int currentY = y + HUD_PADDING;
-            drawHeader(context, textRenderer, x + HUD_PADDING, currentY, incompleteCount, completedCount);
-            currentY += LINE_HEIGHT + HUD_PADDING;
-
-            int displayTodoLimit = todoLimit;
-            int shownTasks = 0;
-            for (Task task : displayTasks) {
-                if (shownTasks >= displayTodoLimit) break;
-                if (task.isCompleted()) continue; // Skip completed tasks
-
-                String priorityIcon = getPriorityIcon(task.getPriority());
-                String taskTitle = task.getTitle();
-                if (taskTitle.length() > 18) {
-                    taskTitle = taskTitle.substring(0, 15) + "...";
-                }
-
-                String statusIcon = "§7☐";
-
-                String tagsDisplay = "";
-                String baseTag = null;
-                if (!task.getTags().isEmpty()) {
-                    String allTags = String.join(",", task.getTags());
-                    if (allTags.length() > 10) {
-                        allTags = allTags.substring(0, 7) + "..";
-                    }
-                    baseTag = allTags;
-                }
-                String assigneeName = null;
-                String assigneeUuid = task.getAssigneeUuid();
-                if (assigneeUuid != null && !assigneeUuid.isEmpty()) {
-                    if (client.getNetworkHandler() != null) {
-                        java.util.Collection<net.minecraft.client.network.PlayerListEntry> entries = client.getNetworkHandler().getPlayerList();
-                        for (net.minecraft.client.network.PlayerListEntry entry : entries) {
-                            if (assigneeUuid.equals(entry.getProfile().getId().toString())) {
-                                String name = entry.getProfile().getName();
-                                if (name != null && !name.isEmpty()) {
-                                    assigneeName = name;
-                                    task.setAssigneeName(name);
-                                }
-                                break;
-                            }
-                        }
-                    }
-                    if ((assigneeName == null || assigneeName.isEmpty()) && task.getAssigneeName() != null) {
-                        assigneeName = task.getAssigneeName();
-                    }
-                }
-                StringBuilder sbTag = new StringBuilder();
-                if (assigneeName != null && !assigneeName.isEmpty()) {
-                    sbTag.append(assigneeName);
-                }
-                if (baseTag != null && !baseTag.isEmpty()) {
-                    if (sbTag.length() > 0) {
-                        sbTag.append(", ");
-                    }
-                    sbTag.append(baseTag);
-                }
-                if (sbTag.length() > 0) {
-                    tagsDisplay = " §b[" + sbTag + "]§f";
-                }
+            addLine(getPriorityIcon(getHighestPriority(baseTasks)) + " " + summaryCore, 0xFFFFFFFF, LINE_HEIGHT);
+            return;
+        }
 
-                String taskLine = priorityIcon + " " + statusIcon + " " + taskTitle + tagsDisplay;
-                context.drawText(textRenderer, Text.of(taskLine),
-                        x + HUD_PADDING, currentY, 0xFFFFFFFF, true);
-                currentY += LINE_HEIGHT;
-                shownTasks++;
-            }
+        int todoLimit = cfg.getHudTodoLimit();
+        int doneLimit = cfg.getHudDoneLimit();
+        boolean showCompleted = cfg.isShowCompletedTasks();
+        int totalLines = 2;
+        totalLines += Math.min(incompleteCount, todoLimit);
+        if (completedCount > 0 && showCompleted) {
+            totalLines += 1 + Math.min(completedCount, doneLimit);
+        }
+        panelHeight = Math.min(HUD_PADDING * 2 + LINE_HEIGHT * totalLines, cfg.getHudMaxHeight());
 
-            if (completedCount > 0 && ModConfig.getInstance().isShowCompletedTasks()) {
-                String separatorText = I18n.translate("hud.todolist.separator.completed");
-                String separator = "§7§l" + separatorText;
-                context.drawText(textRenderer, Text.of(separator),
-                        x + HUD_PADDING, currentY, 0xFFFFFFFF, true);
-                currentY += LINE_HEIGHT;
-            }
+        addLine(buildHeader(), 0xFFFFFFFF, LINE_HEIGHT + HUD_PADDING);
 
-            int displayDoneLimit = doneLimit;
-            shownTasks = 0;
-            for (Task task : displayTasks) {
-                if (shownTasks >= displayDoneLimit) break;
-                if (!task.isCompleted()) continue; // Skip incomplete tasks
+        int shownTasks = 0;
+        for (Task task : displayTasks) {
+            if (shownTasks >= todoLimit) break;
+            if (task.isCompleted()) continue; // Skip completed tasks
+            addLine(buildTaskLine(task, "§7☐"), 0xFFFFFFFF, LINE_HEIGHT);
+            shownTasks++;
+        }
 
-                String priorityIcon = getPriorityIcon(task.getPriority());
-                String taskTitle = task.getTitle();
-                if (taskTitle.length() > 18) {
-                    taskTitle = taskTitle.substring(0, 15) + "...";
-                }
+        if (completedCount > 0 && showCompleted) {
+            String separatorText = I18n.translate("hud.todolist.separator.completed");
+            addLine("§7§l" + separatorText, 0xFFFFFFFF, LINE_HEIGHT);
+        }
 
-                String statusIcon = "§a☑";
+        shownTasks = 0;
+        for (Task task : displayTasks) {
+            if (shownTasks >= doneLimit) break;
+            if (!task.isCompleted()) continue; // Skip incomplete tasks
+            addLine(buildTaskLine(task, "§a☑"), 0xFFFFFFFF, LINE_HEIGHT);
+            shownTasks++;
+        }
 
-                String tagsDisplay = "";
-                String baseTag = null;
-                if (!task.getTags().isEmpty()) {
-                    String allTags = String.join(",", task.getTags());
-                    if (allTags.length() > 10) {
-                        allTags = allTags.substring(0, 7) + "..";
-                    }
-                    baseTag = allTags;
-                }
-                String assigneeName = null;
-                String assigneeUuid = task.getAssigneeUuid();
-                if (assigneeUuid != null && !assigneeUuid.isEmpty()) {
-                    if (client.getNetworkHandler() != null) {
-                        java.util.Collection<net.minecraft.client.network.PlayerListEntry> entries = client.getNetworkHandler().getPlayerList();
-                        for (net.minecraft.client.network.PlayerListEntry entry : entries) {
-                            if (assigneeUuid.equals(entry.getProfile().getId().toString())) {
-                                String name = entry.getProfile().getName();
-                                if (name != null && !name.isEmpty()) {
-                                    assigneeName = name;
-                                    task.setAssigneeName(name);
-                                }
-                                break;
-                            }
-                        }
-                    }
-                    if ((assigneeName == null || assigneeName.isEmpty()) && task.getAssigneeName() != null) {
-                        assigneeName = task.getAssigneeName();
-                    }
-                }
-                StringBuilder sbTagDone = new StringBuilder();
-                if (assigneeName != null && !assigneeName.isEmpty()) {
-                    sbTagDone.append(assigneeName);
-                }
-                if (baseTag != null && !baseTag.isEmpty()) {
-                    if (sbTagDone.length() > 0) {
-                        sbTagDone.append(", ");
-                    }
-                    sbTagDone.append(baseTag);
-                }
-                if (sbTagDone.length() > 0) {
-                    tagsDisplay = " §b[" + sbTagDone + "]§f";
-                }
+        int totalTasks = incompleteCount + (showCompleted ? completedCount : 0);
+        int maxShown = Math.min(incompleteCount, todoLimit)
+                + (showCompleted ? Math.min(completedCount, doneLimit) : 0);
+        if (totalTasks > maxShown) {
+            int more = totalTasks - maxShown;
+            addLine(I18n.translate("hud.todolist.more_tasks", Integer.toString(more)), 0xFFAAAAAA, LINE_HEIGHT);
+        }
+    }
 
-                String taskLine = priorityIcon + " " + statusIcon + " " + taskTitle + tagsDisplay;
-                context.drawText(textRenderer, Text.of(taskLine),
-                        x + HUD_PADDING, currentY, 0xFFFFFFFF, true);
-                currentY += LINE_HEIGHT;
-                shownTasks++;
-            }
+    private void addLine(String text, int color, int advance) {
+        lines.add(new HudLine(Text.of(text).asOrderedText(), color, advance));
+    }
 
-            int totalTasks = incompleteCount + (ModConfig.getInstance().isShowCompletedTasks() ? completedCount : 0);
-            int maxShown = Math.min(incompleteCount, displayTodoLimit)
-                    + (ModConfig.getInstance().isShowCompletedTasks() ? Math.min(completedCount, displayDoneLimit) : 0);
-            if (totalTasks > maxShown) {
-                int more = totalTasks - maxShown;
-                String moreText = I18n.translate("hud.todolist.more_tasks", Integer.toString(more));
-                context.drawText(textRenderer, Text.of(moreText),
-                        x + HUD_PADDING, currentY, 0xFFAAAAAA, true);
-            }
-        } else {
-            int height = HUD_PADDING * 2 + LINE_HEIGHT;
-            int hudWidth = ModConfig.getInstance().getHudWidth();
-            drawBackgroundPanel(context, x, y, hudWidth, height);
+    /**
+     * Icons, title and [assignee, tags], truncated by pixel width to fit the panel. The tag part
+     * gets at most a third of the space left after the icons, the title the rest.
+     */
+    private String buildTaskLine(Task task, String statusIcon) {
+        TextRenderer textRenderer = client.textRenderer;
+        String prefix = getPriorityIcon(task.getPriority()) + " " + statusIcon + " ";
+        int available = ModConfig.getInstance().getHudWidth() - HUD_PADDING * 2 - textRenderer.getWidth(prefix);
 
-            String summaryCore;
-            if (completedCount > 0) {
-                summaryCore = I18n.translate("hud.todolist.summary.with_completed",
-                        Integer.toString(incompleteCount), Integer.toString(completedCount));
-            } else {
-                summaryCore = I18n.translate("hud.todolist.summary", Integer.toString(incompleteCount));
+        String tagsDisplay = "";
+        String baseTag = null;
+        if (!task.getTags().isEmpty()) {
+            baseTag = String.join(",", task.getTags());
+        }
+        String assigneeName = PlayerNameCache.getAssigneeName(task);
+        StringBuilder sbTag = new StringBuilder();
+        if (assigneeName != null && !assigneeName.isEmpty()) {
+            sbTag.append(assigneeName);
+        }
+        if (baseTag != null && !baseTag.isEmpty()) {
+            if (sbTag.length() > 0) {
+                sbTag.append(", ");
             }
-            String summary = getPriorityIcon(getHighestPriority(baseTasks)) + " " + summaryCore;
-
-            context.drawText(textRenderer, Text.of(summary),
-                    x + HUD_PADDING, y + HUD_PADDING, 0xFFFFFFFF, true);
+            sbTag.append(baseTag);
         }
+        if (sbTag.length() > 0) {
+            String tag = EllipsisCache.trim(textRenderer, sbTag.toString(), available / 3);
+            tagsDisplay = " §b[" + tag + "]§f";
+            available -= textRenderer.getWidth(tagsDisplay);
+        }
+
+        String taskTitle = EllipsisCache.trim(textRenderer, task.getTitle(), available);
+        return prefix + taskTitle + tagsDisplay;
     }
 
     private void drawBackgroundPanel(DrawContext context, int x, int y, int width, int height) {
@@ -291,7 +260,7 @@ public class TodoHudRenderer {
         context.drawBorder(x, y, width, height, 0xFF3F3F3F);
     }
 
-    private void drawHeader(DrawContext context, TextRenderer textRenderer, int x, int y, int incomplete, int completed) {
+    private String buildHeader() {
         String view = getEffectiveView();
         String viewLabelKey;
         if ("TEAM_UNASSIGNED".equalsIgnoreCase(view)) {
@@ -305,8 +274,7 @@ public class TodoHudRenderer {
         }
         String viewLabel = I18n.translate(viewLabelKey);
         String headerCore = I18n.translate("hud.todolist.header", viewLabel);
-        String header = "§6§l" + headerCore;
-        context.drawText(textRenderer, Text.of(header), x, y, 0xFFFFFFFF, true);
+        return "§6§l" + headerCore;
     }
 
     private String getEffectiveView() {
@@ -321,13 +289,20 @@ public class TodoHudRenderer {
         return view;
     }
 
+    /**
+     * Mark the HUD lines stale, e.g. after tasks were edited in place without a change event
+     */
+    public void invalidate() {
+        modelDirty = true;
+    }
+
     private List<Task> getBaseTasksForView() {
         String view = getEffectiveView();
         TaskManager manager;
         if (view != null && view.toUpperCase().startsWith("TEAM_")) {
             manager = TodoClient.getTeamTaskManager();
         } else {
-            manager = taskManager;
+            manager = TodoClient.getPersonalTaskManager();
         }
         List<Task> tasks = manager.getAllTasks();
         if ("TEAM_ALL".equalsIgnoreCase(view)) {
@@ -479,43 +454,16 @@ public class TodoHudRenderer {
         TodoListMod.LOGGER.debug("HUD expanded state: {}", expanded);
     }
 
-    /**
-     * Force refresh tasks from storage
-     * Called after manual save in GUI
-     */
-    public void forceRefreshTasks() {
-        try {
-            List<Task> loadedTasks = taskStorage.loadTasks();
-            taskManager = new TaskManager();
-            for (Task task : loadedTasks) {
-                taskManager.addTask(task);
-            }
-            lastRefreshTime = System.currentTimeMillis();
-            TodoListMod.LOGGER.debug("HUD tasks force refreshed");
-        } catch (Exception e) {
-            TodoListMod.LOGGER.error("Failed to force refresh tasks for HUD", e);
-        }
-    }
+    private static final class HudLine {
+        final OrderedText text;
+        final int color;
+        // Vertical distance to the next line
+        final int advance;
 
-    /**
-     * Refresh tasks from storage periodically
-     */
-    private long lastRefreshTime = 0;
-    private static final long REFRESH_INTERVAL_MS = 5000; // Refresh every 5 seconds
-
-    private void refreshTasksIfNeeded() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastRefreshTime > REFRESH_INTERVAL_MS) {
-            try {
-                List<Task> loadedTasks = taskStorage.loadTasks();
-                taskManager = new TaskManager();
-                for (Task task : loadedTasks) {
-                    taskManager.addTask(task);
-                }
-                lastRefreshTime = currentTime;
-            } catch (Exception e) {
-                TodoListMod.LOGGER.error("Failed to refresh tasks for HUD", e);
-            }
+        HudLine(OrderedText text, int color, int advance) {
+            this.text = text;
+            this.color = color;
+            this.advance = advance;
         }
     }
 }
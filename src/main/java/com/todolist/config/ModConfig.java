@@ -24,6 +24,8 @@ public class ModConfig {
     private static final Path CONFIG_PATH = FabricLoader.getInstance().getConfigDir().resolve("todolist.json");
 
     private static ModConfig instance;
+    // Bumped on every load and save, so values derived from the config know when to rebuild
+    private static volatile int revision = 0;
 
     // Configuration options
     private boolean enableHud = true;
@@ -34,6 +36,12 @@ public class ModConfig {
     private int autoSaveIntervalMinutes = 5;
     private String defaultPriority = "MEDIUM";
     private boolean enableTaskRewards = false;
+    private boolean teamJournalEnabled = true;
+    private int teamJournalCompactKb = 256;
+    // 1 = NBT, 2 = compact binary (opt-in: older mod versions cannot read v2 files)
+    private int taskFileFormat = 1;
+    private int playerCacheIdleMinutes = 10;
+    private int playerCacheMaxOffline = 32;
 
     // GUI settings
     private GuiConfig gui = new GuiConfig();
@@ -98,6 +106,7 @@ public class ModConfig {
      * Load configuration from file
      */
     public static void load() {
+        revision++;
         if (Files.exists(CONFIG_PATH)) {
             try (FileReader reader = new FileReader(CONFIG_PATH.toFile())) {
                 instance = GSON.fromJson(reader, ModConfig.class);
@@ -131,6 +140,22 @@ public class ModConfig {
             gui = new GuiConfig();
             return true;
         }
+        if (teamJournalCompactKb <= 0) {
+            teamJournalCompactKb = 256;
+            changed = true;
+        }
+        if (taskFileFormat != 1 && taskFileFormat != 2) {
+            taskFileFormat = 1;
+            changed = true;
+        }
+        if (playerCacheIdleMinutes < 0) {
+            playerCacheIdleMinutes = 10;
+            changed = true;
+        }
+        if (playerCacheMaxOffline < 0) {
+            playerCacheMaxOffline = 32;
+            changed = true;
+        }
         if (gui.backgroundColor == 0xFF000000) {
             gui.backgroundColor = 0x88000000;
             changed = true;
@@ -165,6 +190,7 @@ public class ModConfig {
      * Save configuration to file
      */
     public static void save() {
+        revision++;
         try {
             Files.createDirectories(CONFIG_PATH.getParent());
             try (FileWriter writer = new FileWriter(CONFIG_PATH.toFile())) {
@@ -176,6 +202,10 @@ public class ModConfig {
         }
     }
 
+    public static int getRevision() {
+        return revision;
+    }
+
     /**
      * Get configuration instance
      */
@@ -236,6 +266,36 @@ public class ModConfig {
         save();
     }
 
+    public boolean isTeamJournalEnabled() { return teamJournalEnabled; }
+    public void setTeamJournalEnabled(boolean enabled) {
+        this.teamJournalEnabled = enabled;
+        save();
+    }
+
+    public int getTeamJournalCompactKb() { return teamJournalCompactKb; }
+    public void setTeamJournalCompactKb(int kb) {
+        this.teamJournalCompactKb = kb;
+        save();
+    }
+
+    public int getTaskFileFormat() { return taskFileFormat; }
+    public void setTaskFileFormat(int format) {
+        this.taskFileFormat = format;
+        save();
+    }
+
+    public int getPlayerCacheIdleMinutes() { return playerCacheIdleMinutes; }
+    public void setPlayerCacheIdleMinutes(int minutes) {
+        this.playerCacheIdleMinutes = minutes;
+        save();
+    }
+
+    public int getPlayerCacheMaxOffline() { return playerCacheMaxOffline; }
+    public void setPlayerCacheMaxOffline(int max) {
+        this.playerCacheMaxOffline = max;
+        save();
+    }
+
     public GuiConfig getGui() { return gui; }
 
     // GUI configuration getters and setters
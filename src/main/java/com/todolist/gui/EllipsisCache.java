@@ -0,0 +1,143 @@
+package com.todolist.gui;
+
+import com.todolist.TodoListMod;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Width-aware "..." truncation, measured once per (text, max width, font)
+ *
+ * Results are kept in a bounded LRU map and dropped on resource reload, since glyph widths
+ * can change with the font. Render thread only.
+ */
+public final class EllipsisCache {
+    private static final String ELLIPSIS = "...";
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final Map<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    // Reused for lookups, so a hit allocates nothing
+    private static final Key probe = new Key(null, null, 0);
+    // Bumped when cached results are dropped, so text built from them can be rebuilt too
+    private static int generation = 0;
+
+    private EllipsisCache() {}
+
+    public static void register() {
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+            @Override
+            public Identifier getFabricId() {
+                return new Identifier(TodoListMod.MOD_ID, "ellipsis_cache");
+            }
+
+            @Override
+            public void reload(ResourceManager manager) {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * text if it fits in maxWidth pixels, otherwise its longest prefix that fits with "..." appended
+     */
+    public static String trim(TextRenderer textRenderer, String text, int maxWidth) {
+        return lookup(textRenderer, text, maxWidth).trimmed;
+    }
+
+    /**
+     * Same as trim, as drawable text
+     */
+    public static OrderedText trimToText(TextRenderer textRenderer, String text, int maxWidth) {
+        Entry entry = lookup(textRenderer, text, maxWidth);
+        if (entry.text == null) {
+            entry.text = Text.of(entry.trimmed).asOrderedText();
+        }
+        return entry.text;
+    }
+
+    public static int getGeneration() {
+        return generation;
+    }
+
+    public static void clear() {
+        entries.clear();
+        generation++;
+    }
+
+    private static Entry lookup(TextRenderer textRenderer, String text, int maxWidth) {
+        if (text == null) {
+            text = "";
+        }
+        probe.textRenderer = textRenderer;
+        probe.text = text;
+        probe.maxWidth = maxWidth;
+        Entry entry = entries.get(probe);
+        if (entry == null) {
+            entry = new Entry(measure(textRenderer, text, maxWidth));
+            entries.put(new Key(textRenderer, text, maxWidth), entry);
+        }
+        return entry;
+    }
+
+    private static String measure(TextRenderer textRenderer, String text, int maxWidth) {
+        if (maxWidth <= 0) {
+            return ELLIPSIS;
+        }
+        if (textRenderer.getWidth(text) <= maxWidth) {
+            return text;
+        }
+        int coreWidth = maxWidth - textRenderer.getWidth(ELLIPSIS);
+        if (coreWidth <= 0) {
+            return ELLIPSIS;
+        }
+        return textRenderer.trimToWidth(text, coreWidth) + ELLIPSIS;
+    }
+
+    private static final class Key {
+        TextRenderer textRenderer;
+        String text;
+        int maxWidth;
+
+        Key(TextRenderer textRenderer, String text, int maxWidth) {
+            this.textRenderer = textRenderer;
+            this.text = text;
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return textRenderer == other.textRenderer && maxWidth == other.maxWidth && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return (text.hashCode() * 31 + maxWidth) * 31 + System.identityHashCode(textRenderer);
+        }
+    }
+
+    private static final class Entry {
+        final String trimmed;
+        OrderedText text;
+
+        Entry(String trimmed) {
+            this.trimmed = trimmed;
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.todolist.gui;
 
+import com.todolist.client.PlayerNameCache;
 import com.todolist.config.ModConfig;
 import com.todolist.task.Task;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gui.Drawable;
-import net.minecraft.text.Text;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,7 +31,8 @@ public class TaskListWidget implements Drawable {
     private List<Task> tasks = new ArrayList<>();
     private final ScrollBar scrollBar;
     private int hoveredTaskIndex = -1;
-    private int selectedTaskIndex = -1;
+    // Selection is kept by id and matched against the visible rows only, so neither a new
+    // list nor a new selection has to search the whole list
     private String selectedTaskId;
     private int taskItemHeight;
     private boolean teamAllViewForNonOp;
@@ -54,11 +55,14 @@ public class TaskListWidget implements Drawable {
         this.teamAllViewForNonOp = enabled;
     }
 
+    /**
+     * Show a list; only the rows in the visible window are ever read, so a view over a larger
+     * list is fine and nothing is copied
+     */
     public void setTasks(List<Task> tasks) {
         this.tasks = tasks;
         this.scrollBar.setValue(0);
         updateMaxScroll();
-        syncSelectionIndex();
     }
 
     private void updateMaxScroll() {
@@ -99,6 +103,8 @@ public class TaskListWidget implements Drawable {
         ModConfig config = ModConfig.getInstance();
         int scrollOffset = scrollBar.getValue();
         int visibleTasks = Math.min(tasks.size() - scrollOffset, height / taskItemHeight);
+        String playerUuid = teamAllViewForNonOp && client != null && client.player != null
+                ? client.player.getUuidAsString() : null;
 
         for (int i = 0; i < visibleTasks; i++) {
             int taskIndex = i + scrollOffset;
@@ -107,7 +113,7 @@ public class TaskListWidget implements Drawable {
             Task task = tasks.get(taskIndex);
             int taskY = y + i * taskItemHeight;
 
-            int bgColor = getTaskBackgroundColor(taskIndex, taskY, mouseX, mouseY);
+            int bgColor = getTaskBackgroundColor(task, taskIndex, taskY, mouseX, mouseY, playerUuid);
             int priorityColor = task.getPriority().getColor();
             int textColor = task.isCompleted() ? 0xFF888888 : 0xFFFFFFFF;
 
@@ -133,8 +139,7 @@ public class TaskListWidget implements Drawable {
             int reservedForTags = 100;
             int rightLimit = scrollBar.getBarX() - 2;
             int maxTitleWidth = rightLimit - reservedForTags - titleX;
-            String truncatedTitle = trimWithEllipsis(textRenderer, title, maxTitleWidth);
-            context.drawText(textRenderer, Text.of(truncatedTitle),
+            context.drawText(textRenderer, EllipsisCache.trimToText(textRenderer, title, maxTitleWidth),
                     titleX, taskY + (taskItemHeight - textRenderer.fontHeight) / 2,
                     textColor, false);
 
@@ -146,26 +151,7 @@ public class TaskListWidget implements Drawable {
                 if (!task.getTags().isEmpty()) {
                     baseTag = task.getTags().iterator().next();
                 }
-                String assigneeName = null;
-                String assigneeUuid = task.getAssigneeUuid();
-                if (assigneeUuid != null && !assigneeUuid.isEmpty()) {
-                    if (client != null && client.getNetworkHandler() != null) {
-                        java.util.Collection<net.minecraft.client.network.PlayerListEntry> entries = client.getNetworkHandler().getPlayerList();
-                        for (net.minecraft.client.network.PlayerListEntry entry : entries) {
-                            if (assigneeUuid.equals(entry.getProfile().getId().toString())) {
-                                String name = entry.getProfile().getName();
-                                if (name != null && !name.isEmpty()) {
-                                    assigneeName = name;
-                                    task.setAssigneeName(name);
-                                }
-                                break;
-                            }
-                        }
-                    }
-                    if ((assigneeName == null || assigneeName.isEmpty()) && task.getAssigneeName() != null) {
-                        assigneeName = task.getAssigneeName();
-                    }
-                }
+                String assigneeName = PlayerNameCache.getAssigneeName(task);
                 StringBuilder sb = new StringBuilder();
                 if (assigneeName != null && !assigneeName.isEmpty()) {
                     sb.append(assigneeName);
@@ -180,8 +166,7 @@ public class TaskListWidget implements Drawable {
                 if (tagStr != null) {
                     String display = "[" + tagStr + "]";
                     int maxTagWidth = rightForTags - tagX;
-                    String truncatedTag = trimWithEllipsis(textRenderer, display, maxTagWidth);
-                    context.drawText(textRenderer, Text.of(truncatedTag),
+                    context.drawText(textRenderer, EllipsisCache.trimToText(textRenderer, display, maxTagWidth),
                             tagX, taskY + (taskItemHeight - textRenderer.fontHeight) / 2,
                             0xFF55FFFF, false);
                 }
@@ -189,20 +174,14 @@ public class TaskListWidget implements Drawable {
         }
     }
 
-    private int getTaskBackgroundColor(int taskIndex, int taskY, int mouseX, int mouseY) {
+    private int getTaskBackgroundColor(Task task, int taskIndex, int taskY, int mouseX, int mouseY, String playerUuid) {
         ModConfig config = ModConfig.getInstance();
 
-        if (teamAllViewForNonOp && client != null && client.player != null &&
-                taskIndex >= 0 && taskIndex < tasks.size()) {
-            Task task = tasks.get(taskIndex);
-            String assignee = task.getAssigneeUuid();
-            String uuid = client.player.getUuid().toString();
-            if (assignee != null && assignee.equals(uuid)) {
-                return 0xFF202020;
-            }
+        if (playerUuid != null && playerUuid.equals(task.getAssigneeUuid())) {
+            return 0xFF202020;
         }
 
-        if (taskIndex == selectedTaskIndex) {
+        if (selectedTaskId != null && selectedTaskId.equals(task.getId())) {
             return config.getSelectedBackgroundColor();
         }
 
@@ -299,45 +278,9 @@ public class TaskListWidget implements Drawable {
             return;
         }
         selectedTaskId = task.getId();
-        syncSelectionIndex();
     }
 
     public void clearSelection() {
-        selectedTaskIndex = -1;
         selectedTaskId = null;
     }
-
-    private void syncSelectionIndex() {
-        if (selectedTaskId == null || selectedTaskId.isEmpty() || tasks == null) {
-            selectedTaskIndex = -1;
-            return;
-        }
-        for (int i = 0; i < tasks.size(); i++) {
-            Task t = tasks.get(i);
-            if (t != null && selectedTaskId.equals(t.getId())) {
-                selectedTaskIndex = i;
-                return;
-            }
-        }
-        selectedTaskIndex = -1;
-    }
-
-    private String trimWithEllipsis(TextRenderer textRenderer, String text, int maxWidth) {
-        if (text == null) {
-            return "";
-        }
-        if (maxWidth <= 0) {
-            return "...";
-        }
-        if (textRenderer.getWidth(text) <= maxWidth) {
-            return text;
-        }
-        int ellipsisWidth = textRenderer.getWidth("...");
-        int coreWidth = maxWidth - ellipsisWidth;
-        if (coreWidth <= 0) {
-            return "...";
-        }
-        String core = textRenderer.trimToWidth(text, coreWidth);
-        return core + "...";
-    }
 }
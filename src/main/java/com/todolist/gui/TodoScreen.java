@@ -97,10 +97,14 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
     private Task selectedTask;
     private List<Task> filteredTasks = new ArrayList<>();
     private List<Task> baseFilteredTasks = new ArrayList<>();
+    // Query filteredTasks was last narrowed with, null if it holds all of baseFilteredTasks
+    private String lastSearchQuery;
     private String currentFilter = "active";
     private String searchQuery = "";
     private boolean hasUnsavedChanges = false;
     private static boolean personalHasUnsavedChanges = false;
+    // The personal copy was taken while a chunked sync was still arriving, so it may miss tasks
+    private boolean personalCopyPartial = false;
     private static boolean teamHasUnsavedChanges = false;
     private static LastGuiState lastGuiState;
 
@@ -124,17 +128,12 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
     protected void init() {
         super.init();
 
-        // Initialize task manager and load tasks from storage
+        // Edit a copy of the client's personal tasks, so unsaved changes stay out of the HUD
         if (personalTaskManager == null) {
             personalTaskManager = new TaskManager();
-            try {
-                List<Task> loadedTasks = TodoListMod.getTaskStorage().loadTasks();
-                for (Task task : loadedTasks) {
-                    personalTaskManager.addTask(task);
-                }
-                TodoListMod.LOGGER.info("Loaded {} tasks from storage", loadedTasks.size());
-            } catch (Exception e) {
-                TodoListMod.LOGGER.error("Failed to load tasks from storage", e);
+            personalCopyPartial = ClientTaskPackets.isPersonalSyncInProgress();
+            for (Task task : TodoClient.getPersonalTaskManager().getTasksInOrder()) {
+                personalTaskManager.addTask(task.copy());
             }
         }
 
@@ -216,6 +215,11 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
         if (projectManager != null) {
             projectManager.removeListener(this);
         }
+        // Team tasks are edited in place without change events
+        TodoHudRenderer renderer = TodoClient.getHudRenderer();
+        if (renderer != null) {
+            renderer.invalidate();
+        }
     }
 
     private void applyLastGuiState() {
@@ -325,6 +329,7 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
         }
         baseFilteredTasks = new ArrayList<>();
         filteredTasks = new ArrayList<>();
+        lastSearchQuery = null;
         this.clearChildren();
 
         // Get configuration
@@ -840,15 +845,22 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
     private void onSaveTasks() {
         try {
             if (viewMode == ViewMode.PERSONAL) {
+                if (personalCopyPartial || ClientTaskPackets.isPersonalSyncInProgress()) {
+                    if (this.client != null && this.client.player != null) {
+                        this.client.player.sendMessage(Text.translatable("message.todolist.sync_in_progress"), false);
+                    }
+                    return;
+                }
                 TodoListMod.getTaskStorage().saveTasks(taskManager.getAllTasks());
                 TodoListMod.LOGGER.info("Tasks saved");
-                ClientTaskPackets.sendReplaceAllTasks(taskManager.getAllTasks());
-                TodoHudRenderer renderer = TodoClient.getHudRenderer();
-                if (renderer != null) {
-                    renderer.forceRefreshTasks();
+                ClientTaskPackets.sendPersonalChanges(taskManager.getAllTasks());
+                List<Task> saved = new ArrayList<>();
+                for (Task task : taskManager.getTasksInOrder()) {
+                    saved.add(task.copy());
                 }
+                TodoClient.updatePersonalTasks(saved);
             } else {
-                ClientTaskPackets.sendReplaceTeamTasks(taskManager.getAllTasks());
+                ClientTaskPackets.sendTeamChanges(taskManager.getAllTasks());
                 TodoListMod.LOGGER.info("Team tasks saved");
             }
             hasUnsavedChanges = false;
@@ -1506,6 +1518,30 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
             currentFilter = filter;
         }
         
+        Task.Priority targetPriority = null;
+        if (currentPriorityFilter == 1) targetPriority = Task.Priority.HIGH;
+        else if (currentPriorityFilter == 2) targetPriority = Task.Priority.MEDIUM;
+        else if (currentPriorityFilter == 3) targetPriority = Task.Priority.LOW;
+
+        // A project without legacy (project-less) tasks is read straight from the project index
+        if (currentProject != null && !(currentProject.getScope() == Project.Scope.PERSONAL && isDefaultProject(currentProject))) {
+            Boolean completed;
+            switch (currentFilter) {
+                case "all":
+                    completed = null;
+                    break;
+                case "completed":
+                    completed = Boolean.TRUE;
+                    break;
+                default:
+                    completed = Boolean.FALSE;
+                    break;
+            }
+            List<Task> projectTasks = taskManager.getTasksByProject(currentProject.getId(), completed, targetPriority);
+            onTasksFiltered(applyAssignedFilterIfNeeded(projectTasks));
+            return;
+        }
+
         List<Task> result = new ArrayList<>();
         // 1. First apply Tab filter
         switch (currentFilter) {
@@ -1525,12 +1561,7 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
         }
         
         // 2. Apply Priority Filter
-        if (currentPriorityFilter != 0) {
-            Task.Priority targetPriority = Task.Priority.MEDIUM;
-            if (currentPriorityFilter == 1) targetPriority = Task.Priority.HIGH;
-            else if (currentPriorityFilter == 2) targetPriority = Task.Priority.MEDIUM;
-            else if (currentPriorityFilter == 3) targetPriority = Task.Priority.LOW;
-            
+        if (targetPriority != null) {
             List<Task> priorityFiltered = new ArrayList<>();
             for (Task t : result) {
                 if (t.getPriority() == targetPriority) {
@@ -1541,8 +1572,13 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
         }
         
         // 3. Apply View Scope (Assigned/Unassigned)
-        baseFilteredTasks = applyAssignedFilterIfNeeded(result);
-        
+        onTasksFiltered(applyAssignedFilterIfNeeded(result));
+    }
+
+    private void onTasksFiltered(List<Task> tasks) {
+        baseFilteredTasks = tasks;
+        lastSearchQuery = null;
+
         // 4. Apply Search
         applySearchFilter();
         if (selectedTask != null && !isSelectedTaskValid()) {
@@ -1560,16 +1596,23 @@ public class TodoScreen extends Screen implements ProjectManager.ProjectChangeLi
         filterTasks(currentFilter);
     }
 
+    /**
+     * Narrow baseFilteredTasks by the search query. The list is shared with the widget, not
+     * copied; a query that extends the previous one only re-checks the previous matches.
+     */
     private void applySearchFilter() {
         if (baseFilteredTasks == null) {
             baseFilteredTasks = new ArrayList<>();
         }
         if (searchQuery == null || searchQuery.isEmpty()) {
-            filteredTasks = new ArrayList<>(baseFilteredTasks);
+            filteredTasks = java.util.Collections.unmodifiableList(baseFilteredTasks);
+            lastSearchQuery = null;
         } else {
             String q = searchQuery;
+            List<Task> source = lastSearchQuery != null && q.startsWith(lastSearchQuery) ? filteredTasks : baseFilteredTasks;
+            lastSearchQuery = q;
             List<Task> result = new ArrayList<>();
-            for (Task task : baseFilteredTasks) {
+            for (Task task : source) {
                 String title = task.getTitle() == null ? "" : task.getTitle().toLowerCase();
                 String desc = task.getDescription() == null ? "" : task.getDescription().toLowerCase();
                 boolean matchText = title.contains(q) || desc.contains(q);
@@ -0,0 +1,23 @@
+package com.todolist.mixin;
+
+import com.todolist.client.PlayerNameCache;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.packet.s2c.play.PlayerListS2CPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Feeds player list additions into PlayerNameCache
+ */
+@Mixin(ClientPlayNetworkHandler.class)
+public abstract class ClientPlayNetworkHandlerMixin {
+    // TAIL runs on the client thread, the handler re-schedules itself there first
+    @Inject(method = "onPlayerList", at = @At("TAIL"))
+    private void todolist$cachePlayerNames(PlayerListS2CPacket packet, CallbackInfo ci) {
+        for (PlayerListS2CPacket.Entry entry : packet.getPlayerAdditionEntries()) {
+            PlayerNameCache.onPlayerAdded(entry.profile());
+        }
+    }
+}
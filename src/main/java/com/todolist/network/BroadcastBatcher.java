@@ -0,0 +1,158 @@
+package com.todolist.network;
+
+import com.todolist.task.Task;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues project syncs and team task deltas and sends them once per flush window
+ *
+ * Handlers only record who needs a project sync and which team tasks changed. At the end of
+ * the window each affected player gets at most one project sync and one team delta, however
+ * many changes happened in between. That is two messages per player, not one combined batch.
+ * Projects and team tasks stay on their own channels because each has its own client
+ * receiver, and team deltas already carry a per-player revision chain. Project refreshes for
+ * players who just gained access go out after the project sync, so the client knows the
+ * project before its tasks arrive. Server thread only.
+ */
+public final class BroadcastBatcher {
+    private static final int FLUSH_INTERVAL_TICKS = 1;
+
+    private static final Set<UUID> projectRecipients = new LinkedHashSet<>();
+    private static boolean projectsForAll = false;
+    // Latest state wins: a task changed twice is sent once, a removal cancels a pending change
+    private static final Map<String, Task> teamChanged = new LinkedHashMap<>();
+    private static final Set<String> teamRemoved = new LinkedHashSet<>();
+    // Projects whose team tasks a player gets in full, after the project sync that introduces them
+    private static final Map<UUID, Set<String>> projectRefreshes = new LinkedHashMap<>();
+    private static int ticksUntilFlush = FLUSH_INTERVAL_TICKS;
+
+    private static final AtomicLong queuedCount = new AtomicLong();
+    private static final AtomicLong flushCount = new AtomicLong();
+
+    private BroadcastBatcher() {}
+
+    /**
+     * Must be registered after other END_SERVER_TICK producers (see ToggleCoalescer) so their
+     * changes go out in the same tick
+     */
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (--ticksUntilFlush <= 0) {
+                ticksUntilFlush = FLUSH_INTERVAL_TICKS;
+                flush(server);
+            }
+        });
+    }
+
+    public static void queueProjects(ServerPlayerEntity player) {
+        queuedCount.incrementAndGet();
+        projectRecipients.add(player.getUuid());
+    }
+
+    public static void queueProjectsForAll() {
+        queuedCount.incrementAndGet();
+        projectsForAll = true;
+    }
+
+    public static void queueTeamDelta(List<Task> changed, List<String> removedIds) {
+        queuedCount.incrementAndGet();
+        for (Task task : changed) {
+            teamRemoved.remove(task.getId());
+            teamChanged.put(task.getId(), task);
+        }
+        for (String id : removedIds) {
+            teamChanged.remove(id);
+            teamRemoved.add(id);
+        }
+    }
+
+    /**
+     * Queue a refresh of one project's team tasks for a player, sent after their project sync
+     */
+    public static void queueProjectRefresh(ServerPlayerEntity player, String projectId) {
+        queuedCount.incrementAndGet();
+        projectRefreshes.computeIfAbsent(player.getUuid(), k -> new LinkedHashSet<>()).add(projectId);
+    }
+
+    /**
+     * Drop pending team changes, e.g. because every player is about to get the full list
+     */
+    public static void discardTeamDelta() {
+        teamChanged.clear();
+        teamRemoved.clear();
+    }
+
+    public static void clear() {
+        projectRecipients.clear();
+        projectsForAll = false;
+        projectRefreshes.clear();
+        discardTeamDelta();
+    }
+
+    public static long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public static long getFlushCount() {
+        return flushCount.get();
+    }
+
+    private static void flush(MinecraftServer server) {
+        boolean projects = projectsForAll || !projectRecipients.isEmpty();
+        boolean tasks = !teamChanged.isEmpty() || !teamRemoved.isEmpty();
+        if (!projects && !tasks && projectRefreshes.isEmpty()) {
+            return;
+        }
+        flushCount.incrementAndGet();
+
+        // Projects first, so clients know a new project before its tasks arrive
+        if (projects) {
+            List<ServerPlayerEntity> players;
+            if (projectsForAll) {
+                players = server.getPlayerManager().getPlayerList();
+            } else {
+                players = new ArrayList<>();
+                for (UUID uuid : projectRecipients) {
+                    ServerPlayerEntity player = server.getPlayerManager().getPlayer(uuid);
+                    if (player != null) {
+                        players.add(player);
+                    }
+                }
+            }
+            projectRecipients.clear();
+            projectsForAll = false;
+            ProjectPackets.sendProjects(players);
+        }
+
+        if (!projectRefreshes.isEmpty()) {
+            for (Map.Entry<UUID, Set<String>> entry : projectRefreshes.entrySet()) {
+                ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+                if (player == null) {
+                    continue;
+                }
+                for (String projectId : entry.getValue()) {
+                    TaskPackets.sendTeamProjectRefresh(player, projectId);
+                }
+            }
+            projectRefreshes.clear();
+        }
+
+        if (tasks) {
+            List<Task> changed = new ArrayList<>(teamChanged.values());
+            List<String> removed = new ArrayList<>(teamRemoved);
+            discardTeamDelta();
+            TaskPackets.sendTeamDeltaNow(server, changed, removed);
+        }
+    }
+}
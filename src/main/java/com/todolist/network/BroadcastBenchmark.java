@@ -0,0 +1,83 @@
+package com.todolist.network;
+
+import com.todolist.task.Task;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Micro benchmark for team task broadcasts (/todolist bench)
+ *
+ * Compares encoding the team list once per recipient (the old broadcast path) with encoding
+ * it once and wrapping the shared body per recipient. Runs on synthetic tasks only, so it is
+ * safe to run off the server thread.
+ */
+public final class BroadcastBenchmark {
+    private static final int[] PLAYER_COUNTS = {1, 10, 60, 200};
+    private static final int ROUNDS = 3;
+
+    private BroadcastBenchmark() {}
+
+    public static List<String> run(int taskCount) {
+        List<Task> tasks = createTasks(taskCount);
+        // Warm up both paths before measuring
+        encodePerPlayer(tasks, 10);
+        encodeOnce(tasks, 10);
+
+        List<String> lines = new ArrayList<>();
+        long payloadBytes = TaskPackets.encodeTaskList(tasks).readableBytes();
+        lines.add(String.format("Team list: %d tasks, %d KB per payload", taskCount, payloadBytes / 1024));
+        for (int players : PLAYER_COUNTS) {
+            long perPlayer = Long.MAX_VALUE;
+            long once = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                perPlayer = Math.min(perPlayer, encodePerPlayer(tasks, players));
+                once = Math.min(once, encodeOnce(tasks, players));
+            }
+            lines.add(String.format("%d players: per-player %.2fms, encode-once %.2fms (%.1fx)",
+                    players, perPlayer / 1_000_000.0, once / 1_000_000.0, (double) perPlayer / Math.max(1, once)));
+        }
+        return lines;
+    }
+
+    private static long encodePerPlayer(List<Task> tasks, int players) {
+        long start = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+            PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+            buf.writeVarLong(i);
+            TaskPackets.writeTaskList(buf, tasks);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long encodeOnce(List<Task> tasks, int players) {
+        long start = System.nanoTime();
+        ByteBuf body = TaskPackets.encodeTaskList(tasks);
+        for (int i = 0; i < players; i++) {
+            PacketByteBuf header = new PacketByteBuf(io.netty.buffer.Unpooled.buffer(10));
+            header.writeVarLong(i);
+            TaskPackets.withBody(header, body);
+        }
+        return System.nanoTime() - start;
+    }
+
+    static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        String projectId = UUID.randomUUID().toString();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("Benchmark task " + i, "Synthetic task used to measure broadcast encoding cost");
+            task.setScope(Task.Scope.TEAM);
+            task.setProjectId(projectId);
+            task.setPriority(Task.Priority.values()[i % Task.Priority.values().length]);
+            task.setCompleted(i % 3 == 0);
+            task.setAssigneeUuid(UUID.randomUUID().toString());
+            task.setAssigneeName("Player" + (i % 60));
+            task.addTag("bench");
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
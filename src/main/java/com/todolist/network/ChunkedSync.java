@@ -0,0 +1,177 @@
+package com.todolist.network;
+
+import com.todolist.TodoListMod;
+import com.todolist.task.Task;
+import com.todolist.task.TaskManager;
+import com.todolist.task.TaskRepository;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Chunked full sync for large task lists
+ *
+ * The first chunk (incomplete tasks, highest priority first) goes out immediately so the HUD
+ * has something to show right after join; the rest follows one bounded chunk per player per
+ * tick. Chunks are encoded from the live tasks when they are sent, so changes made while a
+ * stream is running are never overwritten by stale data. The last chunk is flagged as such.
+ *
+ * Chunk layout: [byte kind][varlong revision][varint index][boolean last][task list]
+ */
+public final class ChunkedSync {
+    public static final Identifier SYNC_CHUNK_ID = new Identifier(TodoListMod.MOD_ID, "sync_chunk");
+    public static final byte KIND_PERSONAL = 0;
+    public static final byte KIND_TEAM = 1;
+
+    private static final int CHUNK_TASKS = 100;
+    private static final int MAX_CHUNK_BYTES = 256 * 1024;
+
+    // Running streams per player, indexed by kind
+    private static final Map<UUID, Stream[]> streams = new HashMap<>();
+
+    private ChunkedSync() {}
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(ChunkedSync::tick);
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID playerUuid = handler.getPlayer().getUuid();
+            server.execute(() -> streams.remove(playerUuid));
+        });
+    }
+
+    /**
+     * Start streaming a task list to a player, replacing any stream of the same kind.
+     * Returns false when the list fits in one chunk or the client cannot receive chunks;
+     * the caller then sends the regular single-packet sync.
+     */
+    public static boolean start(ServerPlayerEntity player, byte kind, long revision, TaskManager manager) {
+        cancel(player.getUuid(), kind);
+        if (manager.getTaskCount() <= CHUNK_TASKS || !ServerPlayNetworking.canSend(player, SYNC_CHUNK_ID)) {
+            return false;
+        }
+
+        List<Task> tasks = new ArrayList<>(manager.getIncompleteTasks());
+        tasks.addAll(manager.getCompletedTasks());
+        if (kind == KIND_TEAM) {
+            // Projects the player does not follow are sent when they open or join one
+            tasks = ProjectSubscriptions.filterInterested(player, tasks);
+            if (tasks.size() <= CHUNK_TASKS) {
+                return false;
+            }
+        }
+
+        Stream stream = new Stream(kind, revision);
+        for (Task task : tasks) {
+            stream.remaining.add(task.getId());
+        }
+        streams.computeIfAbsent(player.getUuid(), k -> new Stream[2])[kind] = stream;
+
+        sendNext(player, stream);
+        return true;
+    }
+
+    public static void cancel(UUID playerUuid, byte kind) {
+        Stream[] running = streams.get(playerUuid);
+        if (running != null) {
+            running[kind] = null;
+            if (running[KIND_PERSONAL] == null && running[KIND_TEAM] == null) {
+                streams.remove(playerUuid);
+            }
+        }
+    }
+
+    private static void tick(MinecraftServer server) {
+        if (streams.isEmpty()) {
+            return;
+        }
+        for (UUID playerUuid : new ArrayList<>(streams.keySet())) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerUuid);
+            if (player == null) {
+                streams.remove(playerUuid);
+                continue;
+            }
+            for (Stream stream : streams.get(playerUuid).clone()) {
+                if (stream != null) {
+                    sendNext(player, stream);
+                }
+            }
+        }
+    }
+
+    private static void sendNext(ServerPlayerEntity player, Stream stream) {
+        TaskManager manager = getManager(player.getUuid(), stream.kind);
+        if (manager == null) {
+            cancel(player.getUuid(), stream.kind);
+            return;
+        }
+
+        boolean compact = TaskPackets.usesCompactCodec(player);
+        PacketByteBuf tasks = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        int count = 0;
+        while (!stream.remaining.isEmpty() && count < CHUNK_TASKS && tasks.readableBytes() < MAX_CHUNK_BYTES) {
+            // Deleted since the stream started: nothing to send
+            Task task = manager.getTask(stream.remaining.poll());
+            if (task != null) {
+                TaskPackets.writeTask(tasks, task, compact);
+                count++;
+            }
+        }
+
+        boolean last = stream.remaining.isEmpty();
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer(16 + tasks.readableBytes()));
+        buf.writeByte(stream.kind);
+        buf.writeVarLong(stream.revision);
+        buf.writeVarInt(stream.nextIndex++);
+        buf.writeBoolean(last);
+        // Same framing as TaskPackets.writeServerTaskList for the codec in use
+        if (compact) {
+            buf.writeByte(TaskPackets.COMPACT_LIST_TAG);
+            buf.writeVarInt(count);
+        } else {
+            buf.writeInt(count);
+        }
+        buf.writeBytes(tasks);
+        CompressedPayload.send(player, SYNC_CHUNK_ID, buf);
+
+        if (last) {
+            cancel(player.getUuid(), stream.kind);
+        }
+    }
+
+    private static TaskManager getManager(UUID playerUuid, byte kind) {
+        TaskRepository repository = TodoListMod.getTaskRepository();
+        try {
+            if (kind == KIND_TEAM) {
+                return repository.getTeamTasks();
+            }
+            return repository.isPlayerLoaded(playerUuid) ? repository.getPlayerTasks(playerUuid) : null;
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to access tasks for chunked sync", e);
+            return null;
+        }
+    }
+
+    private static final class Stream {
+        final byte kind;
+        final long revision;
+        final Deque<String> remaining = new ArrayDeque<>();
+        int nextIndex = 0;
+
+        Stream(byte kind, long revision) {
+            this.kind = kind;
+            this.revision = revision;
+        }
+    }
+}
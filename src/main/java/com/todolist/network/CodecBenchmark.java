@@ -0,0 +1,64 @@
+package com.todolist.network;
+
+import com.todolist.task.Task;
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Micro benchmark for the task wire codecs (/todolist bench codec)
+ *
+ * Reports bytes per task and encode / decode time per task for the v1 and compact codecs on
+ * the same synthetic team list used by BroadcastBenchmark.
+ */
+public final class CodecBenchmark {
+    private static final int ROUNDS = 5;
+
+    private CodecBenchmark() {}
+
+    public static List<String> run(int taskCount) {
+        List<Task> tasks = BroadcastBenchmark.createTasks(taskCount);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Task codec: %d tasks", taskCount));
+        lines.add(describe("v1", tasks, false));
+        lines.add(describe("compact", tasks, true));
+        return lines;
+    }
+
+    private static String describe(String name, List<Task> tasks, boolean compact) {
+        // Warm up before measuring
+        measure(tasks, compact);
+        long encode = Long.MAX_VALUE;
+        long decode = Long.MAX_VALUE;
+        int bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] result = measure(tasks, compact);
+            encode = Math.min(encode, result[0]);
+            decode = Math.min(decode, result[1]);
+            bytes = (int) result[2];
+        }
+        int count = Math.max(1, tasks.size());
+        return String.format("%s: %.1f bytes/task, encode %dns/task, decode %dns/task",
+                name, (double) bytes / count, encode / count, decode / count);
+    }
+
+    /**
+     * @return encode nanos, decode nanos, encoded bytes
+     */
+    private static long[] measure(List<Task> tasks, boolean compact) {
+        long start = System.nanoTime();
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        TaskPackets.writeTaskList(buf, tasks, compact);
+        long encoded = System.nanoTime() - start;
+        int bytes = buf.readableBytes();
+
+        start = System.nanoTime();
+        List<Task> decoded = TaskPackets.readTaskList(buf, compact);
+        long decodedNanos = System.nanoTime() - start;
+        if (decoded.size() != tasks.size()) {
+            throw new IllegalStateException("Decoded " + decoded.size() + " of " + tasks.size() + " tasks");
+        }
+        return new long[] {encoded, decodedNanos, bytes};
+    }
+}
@@ -0,0 +1,197 @@
+package com.todolist.network;
+
+import com.todolist.TodoListMod;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate envelope for large sync payloads
+ *
+ * Clients that register the compressed channel get sync packets above THRESHOLD_BYTES wrapped
+ * in it; everyone else gets the plain packet, so old clients keep working. Compression uses a
+ * preset dictionary of strings that show up in most payloads (NBT keys, enum names, UUID
+ * fragments), which matters for the many small strings a task list is made of.
+ *
+ * Envelope layout: [identifier channel][varint prefix length][prefix][varint body length][deflated body]
+ * The prefix is a small per-player header sent as is, so a shared body is compressed once.
+ *
+ * The dictionary is part of the protocol: changing it requires a new channel id.
+ */
+public final class CompressedPayload {
+    public static final Identifier COMPRESSED_ID = new Identifier(TodoListMod.MOD_ID, "compressed_v1");
+
+    private static final int THRESHOLD_BYTES = 1024;
+    // Upper bound for an inflated body; anything larger is rejected instead of allocated
+    private static final int MAX_INFLATED_BYTES = 16 * 1024 * 1024;
+
+    // Most frequent strings last: deflate finds matches near the end of the window cheapest
+    private static final byte[] DICTIONARY = String.join("",
+            "todolistgui.todolist.priority.",
+            "00000000-0000-0000-0000-000000000000",
+            "allowMemberCreatecreatedAtcolorname",
+            "PROJECT_MANAGERLEADMEMBERrole",
+            "PERSONALTEAMscope",
+            "ownerUuidmembersuuidid",
+            "-4000-8000-9000-a000-b000-"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private static final AtomicLong rawBytes = new AtomicLong();
+    private static final AtomicLong sentBytes = new AtomicLong();
+
+    private CompressedPayload() {}
+
+    /**
+     * Send a payload, compressed when the client supports it and it is worth it
+     */
+    public static void send(ServerPlayerEntity player, Identifier channel, PacketByteBuf buf) {
+        send(player, channel, null, new Body(buf));
+    }
+
+    /**
+     * Send a per-player header followed by a shared body
+     */
+    public static void send(ServerPlayerEntity player, Identifier channel, ByteBuf header, Body body) {
+        int headerBytes = header == null ? 0 : header.readableBytes();
+        byte[] deflated = ServerPlayNetworking.canSend(player, COMPRESSED_ID) ? body.deflated() : null;
+        if (deflated == null) {
+            PacketByteBuf plain = header == null
+                    ? new PacketByteBuf(body.raw.slice())
+                    : TaskPackets.withBody(header, body.raw);
+            count(headerBytes + body.raw.readableBytes(), plain.readableBytes());
+            ServerPlayNetworking.send(player, channel, plain);
+            return;
+        }
+
+        PacketByteBuf envelope = new PacketByteBuf(io.netty.buffer.Unpooled.buffer(deflated.length + headerBytes + 64));
+        envelope.writeIdentifier(channel);
+        envelope.writeVarInt(headerBytes);
+        if (header != null) {
+            envelope.writeBytes(header, header.readerIndex(), headerBytes);
+        }
+        envelope.writeVarInt(body.raw.readableBytes());
+        envelope.writeBytes(deflated);
+        count(headerBytes + body.raw.readableBytes(), envelope.readableBytes());
+        ServerPlayNetworking.send(player, COMPRESSED_ID, envelope);
+    }
+
+    /**
+     * Unwrap an envelope after its channel id has been read: returns prefix and inflated body
+     */
+    public static PacketByteBuf read(PacketByteBuf envelope) throws IOException {
+        int prefixLength = envelope.readVarInt();
+        if (prefixLength < 0 || prefixLength > envelope.readableBytes()) {
+            throw new IOException("Invalid prefix length " + prefixLength);
+        }
+        byte[] prefix = new byte[prefixLength];
+        envelope.readBytes(prefix);
+
+        int bodyLength = envelope.readVarInt();
+        if (bodyLength < 0 || bodyLength > MAX_INFLATED_BYTES) {
+            throw new IOException("Invalid body length " + bodyLength);
+        }
+        byte[] deflated = new byte[envelope.readableBytes()];
+        envelope.readBytes(deflated);
+
+        byte[] body = new byte[bodyLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            int read = 0;
+            while (read < bodyLength) {
+                int n = inflater.inflate(body, read, bodyLength - read);
+                if (n == 0) {
+                    if (!inflater.needsDictionary()) {
+                        break;
+                    }
+                    inflater.setDictionary(DICTIONARY);
+                    continue;
+                }
+                read += n;
+            }
+            if (read != bodyLength) {
+                throw new IOException("Truncated body: " + read + " of " + bodyLength + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+        return new PacketByteBuf(io.netty.buffer.Unpooled.wrappedBuffer(prefix, body));
+    }
+
+    public static long getRawBytes() {
+        return rawBytes.get();
+    }
+
+    public static long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    private static void count(long raw, long sent) {
+        rawBytes.addAndGet(raw);
+        sentBytes.addAndGet(sent);
+    }
+
+    /**
+     * Encoded payload body; deflated at most once, however many players it is sent to
+     */
+    public static final class Body {
+        private final ByteBuf raw;
+        private byte[] deflated;
+        private boolean deflateTried;
+
+        public Body(ByteBuf raw) {
+            this.raw = raw;
+        }
+
+        public ByteBuf raw() {
+            return raw;
+        }
+
+        /**
+         * Deflated bytes, or null when the body is below the threshold or does not shrink
+         */
+        private byte[] deflated() {
+            if (!deflateTried) {
+                deflateTried = true;
+                if (raw.readableBytes() >= THRESHOLD_BYTES) {
+                    deflated = deflate(ByteBufUtil.getBytes(raw));
+                }
+            }
+            return deflated;
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+                if (out.size() >= input.length) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
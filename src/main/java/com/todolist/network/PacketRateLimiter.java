@@ -0,0 +1,150 @@
+package com.todolist.network;
+
+import com.todolist.TodoListMod;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per player and packet type for client-to-server packets
+ *
+ * Checked on the network thread before a packet is decoded or scheduled, so excess packets
+ * never reach the server thread, disk or broadcasts. Packets that replace or resync whole
+ * lists get a much smaller budget than single task operations.
+ */
+public final class PacketRateLimiter {
+    private static final Limit DEFAULT_LIMIT = new Limit(20, 10);
+    private static final Limit BULK_LIMIT = new Limit(4, 0.5);
+
+    private static final Map<Identifier, Limit> limits = new HashMap<>();
+    private static final Map<UUID, Map<Identifier, Bucket>> buckets = new ConcurrentHashMap<>();
+    private static final Map<Identifier, AtomicLong> dropped = new ConcurrentHashMap<>();
+    private static final AtomicLong allowedCount = new AtomicLong();
+
+    static {
+        limits.put(TaskPackets.REPLACE_TASKS_ID, BULK_LIMIT);
+        limits.put(TaskPackets.TEAM_REPLACE_TASKS_ID, BULK_LIMIT);
+        limits.put(TaskPackets.TEAM_SAVE_CHANGES_ID, BULK_LIMIT);
+        limits.put(TaskPackets.TEAM_REQUEST_SYNC_ID, BULK_LIMIT);
+        limits.put(ProjectPackets.ADD_PROJECT_ID, BULK_LIMIT);
+        limits.put(ProjectPackets.DELETE_PROJECT_ID, BULK_LIMIT);
+    }
+
+    private PacketRateLimiter() {}
+
+    public static void register() {
+        // Reconnecting costs a full login, which limits budget resets better than keeping the
+        // buckets of every player who ever joined
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> buckets.remove(handler.getPlayer().getUuid()));
+    }
+
+    public static void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Take one token for this packet; false means the packet should be dropped
+     */
+    public static boolean tryAcquire(ServerPlayerEntity player, Identifier channel) {
+        Bucket bucket = getBucket(player, channel);
+        if (bucket.tryAcquire(System.nanoTime())) {
+            allowedCount.incrementAndGet();
+            return true;
+        }
+        dropped.computeIfAbsent(channel, k -> new AtomicLong()).incrementAndGet();
+        if (bucket.markLimited()) {
+            TodoListMod.LOGGER.warn("Rate limiting {} packets from {}", channel.getPath(), player.getName().getString());
+        }
+        return false;
+    }
+
+    /**
+     * Take one token for work deferred after a drop; a miss here is not counted as another drop
+     */
+    public static boolean tryAcquireDeferred(ServerPlayerEntity player, Identifier channel) {
+        return getBucket(player, channel).tryAcquire(System.nanoTime());
+    }
+
+    private static Bucket getBucket(ServerPlayerEntity player, Identifier channel) {
+        return buckets.computeIfAbsent(player.getUuid(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(channel, k -> new Bucket(limits.getOrDefault(channel, DEFAULT_LIMIT)));
+    }
+
+    public static long getAllowedCount() {
+        return allowedCount.get();
+    }
+
+    public static long getDroppedCount() {
+        long total = 0;
+        for (AtomicLong count : dropped.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    /**
+     * Dropped packets per packet type, most dropped first
+     */
+    public static List<String> describeDropped() {
+        List<Map.Entry<Identifier, AtomicLong>> entries = new ArrayList<>(dropped.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()));
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Identifier, AtomicLong> entry : entries) {
+            lines.add(entry.getKey().getPath() + "=" + entry.getValue().get());
+        }
+        return lines;
+    }
+
+    private static final class Limit {
+        final int capacity;
+        final double perSecond;
+
+        Limit(int capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+        }
+    }
+
+    private static final class Bucket {
+        private final Limit limit;
+        private double tokens;
+        private long lastRefill;
+        // Set while dropping, so a burst is logged once instead of per packet
+        private boolean limited;
+
+        Bucket(Limit limit) {
+            this.limit = limit;
+            this.tokens = limit.capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                limited = false;
+                return true;
+            }
+            return false;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(limit.capacity, tokens + (now - lastRefill) / 1_000_000_000.0 * limit.perSecond);
+            lastRefill = now;
+        }
+
+        synchronized boolean markLimited() {
+            boolean first = !limited;
+            limited = true;
+            return first;
+        }
+    }
+}
@@ -26,7 +26,9 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.Formatting;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -42,28 +44,41 @@ public class ProjectPackets {
     public static final Identifier REMOVE_MEMBER_ID = new Identifier(TodoListMod.MOD_ID, "remove_member");
     public static final Identifier UPDATE_MEMBER_ROLE_ID = new Identifier(TodoListMod.MOD_ID, "update_member_role");
     public static final Identifier REQUEST_JOIN_PROJECT_ID = new Identifier(TodoListMod.MOD_ID, "request_join_project");
+    public static final Identifier VIEW_PROJECT_ID = new Identifier(TodoListMod.MOD_ID, "view_project");
 
     public static void registerServerPackets() {
         // ADD_PROJECT
         ServerPlayNetworking.registerGlobalReceiver(ADD_PROJECT_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, ADD_PROJECT_ID)) {
+                return;
+            }
             Project project = readProject(buf);
             server.execute(() -> handleAddProject(server, player, project));
         });
 
         // UPDATE_PROJECT
         ServerPlayNetworking.registerGlobalReceiver(UPDATE_PROJECT_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, UPDATE_PROJECT_ID)) {
+                return;
+            }
             Project project = readProject(buf);
             server.execute(() -> handleUpdateProject(server, player, project));
         });
 
         // DELETE_PROJECT
         ServerPlayNetworking.registerGlobalReceiver(DELETE_PROJECT_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, DELETE_PROJECT_ID)) {
+                return;
+            }
             String projectId = buf.readString();
             server.execute(() -> handleDeleteProject(server, player, projectId));
         });
 
         // ADD_MEMBER
         ServerPlayNetworking.registerGlobalReceiver(ADD_MEMBER_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, ADD_MEMBER_ID)) {
+                return;
+            }
             String projectId = buf.readString();
             String memberUuidOrName = buf.readString();
             String memberUuid = "";
@@ -81,6 +96,9 @@ public class ProjectPackets {
 
         // REMOVE_MEMBER
         ServerPlayNetworking.registerGlobalReceiver(REMOVE_MEMBER_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, REMOVE_MEMBER_ID)) {
+                return;
+            }
             String projectId = buf.readString();
             String memberUuid = buf.readString();
             server.execute(() -> handleRemoveMember(server, player, projectId, memberUuid));
@@ -88,6 +106,9 @@ public class ProjectPackets {
 
         // UPDATE_MEMBER_ROLE
         ServerPlayNetworking.registerGlobalReceiver(UPDATE_MEMBER_ROLE_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, UPDATE_MEMBER_ROLE_ID)) {
+                return;
+            }
             String projectId = buf.readString();
             String memberUuid = buf.readString();
             String roleStr = buf.readString();
@@ -95,17 +116,34 @@ public class ProjectPackets {
         });
 
         ServerPlayNetworking.registerGlobalReceiver(REQUEST_JOIN_PROJECT_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, REQUEST_JOIN_PROJECT_ID)) {
+                return;
+            }
             String projectId = buf.readString();
             server.execute(() -> handleRequestJoinProject(server, player, projectId));
         });
 
+        // VIEW_PROJECT
+        ServerPlayNetworking.registerGlobalReceiver(VIEW_PROJECT_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, VIEW_PROJECT_ID)) {
+                return;
+            }
+            String projectId = buf.readString();
+            server.execute(() -> handleViewProject(player, projectId));
+        });
+
+        ProjectSubscriptions.register();
+
         // Sync on join
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             ServerPlayerEntity player = handler.getPlayer();
-            server.execute(() -> {
+            server.execute(() -> TodoListMod.getPlayerDataCache().ensureLoaded(server, player.getUuid()).whenCompleteAsync((loaded, error) -> {
+                if (player.isDisconnected()) {
+                    return;
+                }
                 cachePlayerNameForTeamProjects(server, player);
                 syncProjectsToPlayer(player);
-            });
+            }, server));
         });
     }
 
@@ -137,6 +175,15 @@ public class ProjectPackets {
         }
     }
 
+    private static void handleViewProject(ServerPlayerEntity player, String projectId) {
+        // Players outside the project were not receiving its updates; catch them up first
+        boolean wasInterested = projectId.isEmpty() || ProjectSubscriptions.isInterested(player, projectId);
+        ProjectSubscriptions.setViewing(player.getUuid(), projectId);
+        if (!wasInterested) {
+            BroadcastBatcher.queueProjectRefresh(player, projectId);
+        }
+    }
+
     private static void handleAddProject(MinecraftServer server, ServerPlayerEntity player, Project project) {
         // Validation
         if (project.getName() == null || project.getName().isEmpty()) {
@@ -158,7 +205,7 @@ public class ProjectPackets {
         manager.addProject(project);
 
         // Save
-        saveProjects(server, project.getScope());
+        saveProjects(server, project);
 
         // Sync
         if (project.getScope() == Project.Scope.PERSONAL) {
@@ -201,13 +248,13 @@ public class ProjectPackets {
         manager.updateProject(existingProject);
 
         // Save
-        saveProjects(server, existingProject.getScope());
+        saveProjects(server, existingProject);
 
         // Sync
         if (existingProject.getScope() == Project.Scope.PERSONAL) {
             syncProjectsToPlayer(player);
         } else {
-            broadcastProjects(server);
+            broadcastProject(server, existingProject);
         }
         
         TodoListMod.LOGGER.info("Player {} updated project: {}", player.getName().getString(), existingProject.getName());
@@ -239,7 +286,10 @@ public class ProjectPackets {
         manager.deleteProject(projectId);
 
         // Save
-        saveProjects(server, existingProject.getScope());
+        saveProjects(server, existingProject);
+        if (existingProject.getScope() == Project.Scope.TEAM) {
+            TaskPackets.onTeamProjectDeleted(server, projectId);
+        }
 
         // Sync
         if (existingProject.getScope() == Project.Scope.PERSONAL) {
@@ -278,8 +328,8 @@ public class ProjectPackets {
 
             project.addMember(memberUuid, Project.ProjectRole.MEMBER, finalName);
             manager.updateProject(project);
-            saveProjects(server, project.getScope());
-            broadcastProjects(server);
+            saveProjects(server, project);
+            onMemberAdded(server, project, memberUuid);
             TodoListMod.LOGGER.info("Added member {} to project {}", memberUuid, project.getName());
             return;
         }
@@ -292,8 +342,8 @@ public class ProjectPackets {
 
                     project.addMember(uuid, Project.ProjectRole.MEMBER, profile.getName());
                     manager.updateProject(project);
-                    saveProjects(server, project.getScope());
-                    broadcastProjects(server);
+                    saveProjects(server, project);
+                    onMemberAdded(server, project, uuid);
 
                     TodoListMod.LOGGER.info("Added member {} to project {}", memberName, project.getName());
                 });
@@ -317,8 +367,13 @@ public class ProjectPackets {
         
         project.removeMember(memberUuid);
         manager.updateProject(project);
-        saveProjects(server, project.getScope());
-        broadcastProjects(server);
+        saveProjects(server, project);
+        broadcastProject(server, project);
+        // The removed member no longer counts as a recipient but still needs the new member list
+        ServerPlayerEntity removed = getOnlinePlayer(server, memberUuid);
+        if (removed != null && !ProjectSubscriptions.isInterested(removed, projectId)) {
+            syncProjectsToPlayer(removed);
+        }
         
         TodoListMod.LOGGER.info("Removed member {} from project {}", memberUuid, project.getName());
     }
@@ -346,8 +401,8 @@ public class ProjectPackets {
         String name = project.getMemberName(memberUuid);
         project.addMember(memberUuid, newRole, name);
         manager.updateProject(project);
-        saveProjects(server, project.getScope());
-        broadcastProjects(server);
+        saveProjects(server, project);
+        broadcastProject(server, project);
     }
 
     private static void handleRequestJoinProject(MinecraftServer server, ServerPlayerEntity player, String projectId) {
@@ -457,8 +512,8 @@ public class ProjectPackets {
         if (accepted) {
             project.addMember(applicantUuid, Project.ProjectRole.MEMBER, applicant.getName().getString());
             manager.updateProject(project);
-            saveProjects(server, project.getScope());
-            broadcastProjects(server);
+            saveProjects(server, project);
+            onMemberAdded(server, project, applicantUuid);
             applicant.sendMessage(Text.translatable("message.todolist.project.join.accepted", projectName), false);
             approver.sendMessage(Text.translatable("message.todolist.project.join.approved", applicant.getName().getString()), false);
         } else {
@@ -510,86 +565,96 @@ public class ProjectPackets {
         }
     }
 
+    private static void saveProjects(MinecraftServer server, Project project) {
+        if (project.getScope() != Project.Scope.PERSONAL) {
+            saveProjects(server, project.getScope());
+            return;
+        }
+        try {
+            String owner = project.getOwnerUuid();
+            ProjectSaveDebouncer.requestPersonalSave(server, owner == null || owner.isEmpty() ? null : owner);
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to save projects", e);
+        }
+    }
+
+    /**
+     * Queue a project sync for one player; sent with the next broadcast flush
+     */
     private static void syncProjectsToPlayer(ServerPlayerEntity player) {
+        BroadcastBatcher.queueProjects(player);
+    }
+
+    /**
+     * Sync every player; used when the set of visible projects changes (add / delete)
+     */
+    private static void broadcastProjects(MinecraftServer server) {
+        BroadcastBatcher.queueProjectsForAll();
+    }
+
+    /**
+     * Sync only the players interested in one team project
+     */
+    private static void broadcastProject(MinecraftServer server, Project project) {
+        for (ServerPlayerEntity player : ProjectSubscriptions.getRecipients(server, project.getId())) {
+            BroadcastBatcher.queueProjects(player);
+        }
+    }
+
+    /**
+     * Send the visible projects to each player. Team projects and shared personal projects are
+     * the same for everyone and encoded once; only the player's own personal projects and the
+     * count are written per player (the client does not depend on the order).
+     */
+    static void sendProjects(List<ServerPlayerEntity> players) {
+        if (players.isEmpty()) {
+            return;
+        }
         ProjectManager manager = TodoListMod.getProjectManager();
-        List<Project> personalProjects = manager.getProjectsByScope(Project.Scope.PERSONAL);
-        List<Project> teamProjects = manager.getProjectsByScope(Project.Scope.TEAM);
-        
-        // Filter personal projects for this player?
-        // Wait, ProjectManager currently holds ALL projects.
-        // For personal projects, we should only send the ones owned by the player?
-        // Yes. The current implementation of ProjectManager loads ALL projects. 
-        // But for PERSONAL scope, we should probably filter by owner if we are in a multi-user environment.
-        // However, ProjectStorage.loadProjects() loads from "projects.dat" which seems to be global or single-player.
-        // If this is a dedicated server with multiple players, PERSONAL projects should probably be per-player file.
-        // Re-checking ProjectStorage: 
-        // savePlayerProjects(UUID playerUuid, ...) -> saves to players/{uuid}.dat
-        // loadPlayerProjects(UUID playerUuid) -> loads from players/{uuid}.dat
-        // But TodoListMod initializes by calling loadProjects() (global) and loadTeamProjects().
-        // It seems TodoListMod initialization needs to be aware of per-player loading on join.
-        
-        // Let's refine syncProjectsToPlayer:
-        // 1. Load player-specific projects if not loaded? 
-        // Actually, ProjectManager should ideally manage per-player projects separately or we load them into the manager with some key.
-        // Current ProjectManager is a simple map.
-        
-        // In a real multiplayer scenario:
-        // Personal projects are private. We should load them when player joins, and unload when leaves?
-        // Or just load them and keep them.
-        
-        // Let's look at TaskPackets. It uses storage.loadPlayerTasks(playerUuid).
-        // So ProjectPackets should also load player projects on demand or use what's in manager.
-        // But TodoListMod only loaded global projects.
-        
-        // Correction: TodoListMod loaded "projects.dat" which are... global? 
-        // In singleplayer, there's only one player.
-        // In multiplayer, we need per-player personal projects.
-        
-        // Let's update syncProjectsToPlayer to load from storage if needed.
-        
-        List<Project> projectsToSend = new ArrayList<>();
-        
-        // 1. Team projects (visible to all for now, or filter by membership)
-        // For now, send all team projects.
-        projectsToSend.addAll(teamProjects);
-        
-        // 2. Personal projects
-        // We should check if we have them in memory.
-        // If ProjectManager is global, we might have mixed personal projects.
-        // Filter by owner.
-        String playerUuid = player.getUuidAsString();
-        /*
-        for (Project p : personalProjects) {
-            if (playerUuid.equals(p.getOwnerUuid())) {
-                projectsToSend.add(p);
+        List<Project> shared = new ArrayList<>(manager.getProjectsByScope(Project.Scope.TEAM));
+        // Owned personal projects are loaded per player on join, see PlayerDataCache
+        Map<String, List<Project>> owned = new HashMap<>();
+        for (Project p : manager.getProjectsByScope(Project.Scope.PERSONAL)) {
+            String owner = p.getOwnerUuid();
+            if (owner == null || owner.isEmpty()) {
+                shared.add(p);
+            } else {
+                owned.computeIfAbsent(owner, k -> new ArrayList<>()).add(p);
             }
         }
-        */
-        // Actually, TodoListMod currently loads `projects.dat` which seems to be the "main" file.
-        // If we want per-player isolation, we should use `loadPlayerProjects`.
-        // But let's stick to the current implementation of TodoListMod which loads `loadProjects()`.
-        // Wait, `loadProjects()` loads from `projects.dat`.
-        // If we want to support multiplayer properly, we should change TodoListMod to NOT load personal projects globally,
-        // but load them per player on join.
-        
-        // However, for this task, I'll stick to what I have. 
-        // If `loadProjects()` loads all personal projects (from singleplayer context), then filtering by owner is good practice.
-        // In singleplayer, ownerUuid might be the player's UUID.
-        
-        // Let's send all projects for now, client can filter or we filter here.
-        // Sending all is easier for synchronization if we assume singleplayer or small coop.
-        // But let's try to be correct:
-        
-        projectsToSend.addAll(personalProjects); // Sending all personal projects (simplification)
-        
-        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        writeProjectList(buf, projectsToSend);
-        ServerPlayNetworking.send(player, SYNC_PROJECTS_ID, buf);
+
+        PacketByteBuf sharedBuf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        for (Project p : shared) {
+            writeProject(sharedBuf, p);
+        }
+        CompressedPayload.Body body = new CompressedPayload.Body(sharedBuf);
+        for (ServerPlayerEntity player : players) {
+            List<Project> own = owned.getOrDefault(player.getUuidAsString(), List.of());
+            PacketByteBuf header = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+            header.writeInt(shared.size() + own.size());
+            for (Project p : own) {
+                writeProject(header, p);
+            }
+            CompressedPayload.send(player, SYNC_PROJECTS_ID, header, body);
+        }
     }
 
-    private static void broadcastProjects(MinecraftServer server) {
-        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
-            syncProjectsToPlayer(player);
+    private static void onMemberAdded(MinecraftServer server, Project project, String memberUuid) {
+        ServerPlayerEntity member = getOnlinePlayer(server, memberUuid);
+        // Membership was just added, so only operators and viewers already had the project's tasks
+        boolean wasInterested = member == null || member.hasPermissionLevel(2)
+                || ProjectSubscriptions.isViewing(member.getUuid(), project.getId());
+        broadcastProject(server, project);
+        if (!wasInterested) {
+            BroadcastBatcher.queueProjectRefresh(member, project.getId());
+        }
+    }
+
+    private static ServerPlayerEntity getOnlinePlayer(MinecraftServer server, String uuid) {
+        try {
+            return server.getPlayerManager().getPlayer(UUID.fromString(uuid));
+        } catch (Exception e) {
+            return null;
         }
     }
 
@@ -0,0 +1,183 @@
+package com.todolist.network;
+
+import com.todolist.TodoListMod;
+import com.todolist.project.Project;
+import com.todolist.task.Task;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Server-side interest registry for team project updates
+ *
+ * A player is interested in a team project when they own it, are a member, are an operator,
+ * or currently have it open. Fan-out goes to those players only, so the cost of an update
+ * scales with the size of the project instead of the number of players online.
+ * Tasks without a (known) team project are still of interest to everyone.
+ */
+public final class ProjectSubscriptions {
+    private static final int OPERATOR_REFRESH_TICKS = 20 * 5;
+
+    // Project id -> players that have it open, and the reverse
+    private static final Map<String, Set<UUID>> viewers = new HashMap<>();
+    private static final Map<UUID, String> viewing = new HashMap<>();
+    // Online players with operator permissions; refreshed periodically since /op can change it
+    private static final Set<UUID> operators = new HashSet<>();
+    private static int ticksUntilRefresh = OPERATOR_REFRESH_TICKS;
+
+    private ProjectSubscriptions() {}
+
+    public static void register() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            ServerPlayerEntity player = handler.getPlayer();
+            server.execute(() -> {
+                if (player.hasPermissionLevel(2)) {
+                    operators.add(player.getUuid());
+                }
+            });
+        });
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID playerUuid = handler.getPlayer().getUuid();
+            server.execute(() -> {
+                operators.remove(playerUuid);
+                setViewing(playerUuid, null);
+            });
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (--ticksUntilRefresh <= 0) {
+                ticksUntilRefresh = OPERATOR_REFRESH_TICKS;
+                refreshOperators(server);
+            }
+        });
+    }
+
+    /**
+     * Record the project a player has open (null or empty for none)
+     */
+    public static void setViewing(UUID playerUuid, String projectId) {
+        String previous = projectId == null || projectId.isEmpty()
+                ? viewing.remove(playerUuid)
+                : viewing.put(playerUuid, projectId);
+        if (previous != null) {
+            Set<UUID> set = viewers.get(previous);
+            if (set != null) {
+                set.remove(playerUuid);
+                if (set.isEmpty()) {
+                    viewers.remove(previous);
+                }
+            }
+        }
+        if (projectId != null && !projectId.isEmpty()) {
+            viewers.computeIfAbsent(projectId, k -> new HashSet<>()).add(playerUuid);
+        }
+    }
+
+    public static boolean isViewing(UUID playerUuid, String projectId) {
+        return projectId != null && projectId.equals(viewing.get(playerUuid));
+    }
+
+    public static boolean isInterested(ServerPlayerEntity player, String projectId) {
+        Project project = getTeamProject(projectId);
+        if (project == null) {
+            return true;
+        }
+        UUID playerUuid = player.getUuid();
+        return operators.contains(playerUuid)
+                || isMember(project, playerUuid.toString())
+                || viewers.getOrDefault(projectId, Collections.emptySet()).contains(playerUuid);
+    }
+
+    /**
+     * The tasks a player is interested in, in their original order. Operators always get the
+     * whole list, even before the next operator refresh, since they may replace it.
+     */
+    public static List<Task> filterInterested(ServerPlayerEntity player, List<Task> tasks) {
+        if (player.hasPermissionLevel(2)) {
+            return tasks;
+        }
+        Map<String, Boolean> interest = new HashMap<>();
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (interest.computeIfAbsent(task.getProjectId(), projectId -> isInterested(player, projectId))) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    public static boolean isMember(Project project, String playerUuid) {
+        return playerUuid.equals(project.getOwnerUuid()) || project.getMemberRole(playerUuid) != null;
+    }
+
+    /**
+     * Online players interested in a project; everyone if it is not a known team project
+     */
+    public static List<ServerPlayerEntity> getRecipients(MinecraftServer server, String projectId) {
+        PlayerManager players = server.getPlayerManager();
+        Project project = getTeamProject(projectId);
+        if (project == null) {
+            return players.getPlayerList();
+        }
+
+        Set<UUID> uuids = new LinkedHashSet<>(operators);
+        addUuid(uuids, project.getOwnerUuid());
+        for (String member : project.getMembers().keySet()) {
+            addUuid(uuids, member);
+        }
+        uuids.addAll(viewers.getOrDefault(projectId, Collections.emptySet()));
+
+        List<ServerPlayerEntity> recipients = new ArrayList<>();
+        for (UUID uuid : uuids) {
+            ServerPlayerEntity player = players.getPlayer(uuid);
+            if (player != null) {
+                recipients.add(player);
+            }
+        }
+        return recipients;
+    }
+
+    public static void clear() {
+        viewers.clear();
+        viewing.clear();
+        operators.clear();
+    }
+
+    private static Project getTeamProject(String projectId) {
+        if (projectId == null || projectId.isEmpty()) {
+            return null;
+        }
+        Project project = TodoListMod.getProjectManager().getProject(projectId);
+        return project != null && project.getScope() == Project.Scope.TEAM ? project : null;
+    }
+
+    private static void addUuid(Set<UUID> uuids, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        try {
+            uuids.add(UUID.fromString(value));
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    private static void refreshOperators(MinecraftServer server) {
+        operators.clear();
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            if (player.hasPermissionLevel(2)) {
+                operators.add(player.getUuid());
+            }
+        }
+    }
+}
@@ -7,21 +7,34 @@ import com.todolist.permission.PermissionCenter.Operation;
 import com.todolist.permission.PermissionCenter.Role;
 import com.todolist.permission.PermissionCenter.ViewScope;
 import com.todolist.task.Task;
-import com.todolist.task.TaskStorage;
+import com.todolist.task.TaskManager;
+import com.todolist.task.TaskRepository;
+import com.todolist.task.TaskSaveDebouncer;
 import com.todolist.project.Project;
 import com.todolist.project.ProjectManager;
+import io.netty.buffer.ByteBuf;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.Packet;
 import net.minecraft.network.packet.s2c.play.CustomPayloadS2CPacket;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -49,21 +62,47 @@ public class TaskPackets {
     public static final Identifier TEAM_TOGGLE_TASK_ID = new Identifier(TodoListMod.MOD_ID, "team_toggle_task");
     public static final Identifier TEAM_ASSIGN_TASK_ID = new Identifier(TodoListMod.MOD_ID, "team_assign_task");
     public static final Identifier TEAM_REQUEST_SYNC_ID = new Identifier(TodoListMod.MOD_ID, "team_request_sync");
+    public static final Identifier TEAM_DELTA_TASKS_ID = new Identifier(TodoListMod.MOD_ID, "team_delta_tasks");
+    public static final Identifier TEAM_SAVE_CHANGES_ID = new Identifier(TodoListMod.MOD_ID, "team_save_changes");
+    public static final Identifier PATCH_TASK_ID = new Identifier(TodoListMod.MOD_ID, "patch_task");
+    public static final Identifier TASK_REVISION_ID = new Identifier(TodoListMod.MOD_ID, "task_revision");
+    // Capability marker: registered by both sides that speak the compact task codec
+    public static final Identifier CODEC_V2_ID = new Identifier(TodoListMod.MOD_ID, "task_codec_v2");
+    // Leading byte of compact server task lists (see writeServerTaskList)
+    public static final byte COMPACT_LIST_TAG = (byte) 0xFF;
+
+    // Last team revision sent to each player. Players only receive changes to projects they
+    // are interested in, so every player has their own revision sequence.
+    private static final Map<UUID, Long> teamRevisions = new HashMap<>();
+    // Players owed a full sync because a bulk packet of theirs was rate limited; at most one
+    // pending per player and list, served as their budget refills
+    private static final Set<UUID> pendingPersonalResyncs = new LinkedHashSet<>();
+    private static final Set<UUID> pendingTeamResyncs = new LinkedHashSet<>();
+
+    // Result bits of applying a saved change to one team task
+    private static final int CHANGE_APPLIED = 1;
+    private static final int CHANGE_DENIED = 1 << 1;
 
     public static void registerServerPackets() {
+        ServerPlayNetworking.registerGlobalReceiver(CODEC_V2_ID, (server, player, handler, buf, responseSender) -> {
+        });
+
         ServerPlayNetworking.registerGlobalReceiver(ADD_TASK_ID, (server, player, handler, buf, responseSender) -> {
-            Task task = readTask(buf);
+            if (!PacketRateLimiter.tryAcquire(player, ADD_TASK_ID)) {
+                return;
+            }
+            Task task = readTask(buf, usesCompactCodec(player));
 
-            server.execute(() -> {
+            executeWhenLoaded(server, player, () -> {
                 UUID playerUuid = player.getUuid();
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadPlayerTasks(playerUuid);
-                    tasks.add(task);
-                    storage.savePlayerTasks(playerUuid, tasks);
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager tasks = repository.getPlayerTasks(playerUuid);
+                    tasks.addTask(task);
+                    savePlayerTasks(server, playerUuid);
                     TodoListMod.LOGGER.info("Player {} added task: {}", player.getName().getString(), task.getTitle());
                     sendConfirmation(player, "add", task.getId(), true);
-                    sendSyncTasks(player, tasks);
+                    sendSyncTasks(player, tasks.getTasksInOrder());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to add task", e);
                     sendConfirmation(player, "add", task.getId(), false);
@@ -72,33 +111,33 @@ public class TaskPackets {
         });
 
         ServerPlayNetworking.registerGlobalReceiver(UPDATE_TASK_ID, (server, player, handler, buf, responseSender) -> {
-            Task updatedTask = readTask(buf);
+            if (!PacketRateLimiter.tryAcquire(player, UPDATE_TASK_ID)) {
+                return;
+            }
+            Task updatedTask = readTask(buf, usesCompactCodec(player));
 
-            server.execute(() -> {
+            executeWhenLoaded(server, player, () -> {
                 UUID playerUuid = player.getUuid();
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadPlayerTasks(playerUuid);
-                    boolean found = false;
-                    for (Task task : tasks) {
-                        if (task.getId().equals(updatedTask.getId())) {
-                            task.setTitle(updatedTask.getTitle());
-                            task.setDescription(updatedTask.getDescription());
-                            task.setCompleted(updatedTask.isCompleted());
-                            task.setPriority(updatedTask.getPriority());
-                            task.setTags(updatedTask.getTags());
-                            task.setDueDate(updatedTask.getDueDate());
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) {
-                        tasks.add(updatedTask);
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager tasks = repository.getPlayerTasks(playerUuid);
+                    Task task = tasks.getTask(updatedTask.getId());
+                    if (task != null) {
+                        task.setTitle(updatedTask.getTitle());
+                        task.setDescription(updatedTask.getDescription());
+                        task.setCompleted(updatedTask.isCompleted());
+                        task.setPriority(updatedTask.getPriority());
+                        task.setTags(updatedTask.getTags());
+                        task.setDueDate(updatedTask.getDueDate());
+                        task.setRevision(task.getRevision() + 1);
+                        tasks.updateTask(task);
+                    } else {
+                        tasks.addTask(updatedTask);
                     }
-                    storage.savePlayerTasks(playerUuid, tasks);
+                    savePlayerTasks(server, playerUuid);
                     TodoListMod.LOGGER.info("Player {} updated task: {}", player.getName().getString(), updatedTask.getTitle());
                     sendConfirmation(player, "update", updatedTask.getId(), true);
-                    sendSyncTasks(player, tasks);
+                    sendSyncTasks(player, tasks.getTasksInOrder());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to update task", e);
                     sendConfirmation(player, "update", updatedTask.getId(), false);
@@ -106,19 +145,54 @@ public class TaskPackets {
             });
         });
 
+        ServerPlayNetworking.registerGlobalReceiver(PATCH_TASK_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, PATCH_TASK_ID)) {
+                return;
+            }
+            TaskPatch patch = TaskPatch.read(buf);
+
+            executeWhenLoaded(server, player, () -> {
+                UUID playerUuid = player.getUuid();
+                try {
+                    TaskManager tasks = TodoListMod.getTaskRepository().getPlayerTasks(playerUuid);
+                    Task task = tasks.getTask(patch.getTaskId());
+                    if (task == null || task.getRevision() != patch.getBaseRevision()) {
+                        // Edited concurrently (or gone): reject and let the client start from the current list
+                        TodoListMod.LOGGER.info("Rejected patch of task {} from {}: base revision {}, current {}",
+                                patch.getTaskId(), player.getName().getString(), patch.getBaseRevision(),
+                                task == null ? "missing" : task.getRevision());
+                        sendConfirmation(player, "patch", patch.getTaskId(), false);
+                        sendSyncTasks(player, tasks.getTasksInOrder());
+                        return;
+                    }
+                    patch.applyTo(task);
+                    task.setRevision(task.getRevision() + 1);
+                    tasks.updateTask(task);
+                    savePlayerTasks(server, playerUuid);
+                    sendTaskRevision(player, task);
+                } catch (Exception e) {
+                    TodoListMod.LOGGER.error("Failed to patch task", e);
+                    sendConfirmation(player, "patch", patch.getTaskId(), false);
+                }
+            });
+        });
+
         ServerPlayNetworking.registerGlobalReceiver(DELETE_TASK_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, DELETE_TASK_ID)) {
+                return;
+            }
             String taskId = buf.readString();
 
-            server.execute(() -> {
+            executeWhenLoaded(server, player, () -> {
                 UUID playerUuid = player.getUuid();
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadPlayerTasks(playerUuid);
-                    tasks.removeIf(t -> t.getId().equals(taskId));
-                    storage.savePlayerTasks(playerUuid, tasks);
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager tasks = repository.getPlayerTasks(playerUuid);
+                    tasks.deleteTask(taskId);
+                    savePlayerTasks(server, playerUuid);
                     TodoListMod.LOGGER.info("Player {} deleted task: {}", player.getName().getString(), taskId);
                     sendConfirmation(player, "delete", taskId, true);
-                    sendSyncTasks(player, tasks);
+                    sendSyncTasks(player, tasks.getTasksInOrder());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to delete task", e);
                     sendConfirmation(player, "delete", taskId, false);
@@ -127,38 +201,29 @@ public class TaskPackets {
         });
 
         ServerPlayNetworking.registerGlobalReceiver(TOGGLE_TASK_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, TOGGLE_TASK_ID)) {
+                return;
+            }
             String taskId = buf.readString();
-
-            server.execute(() -> {
-                UUID playerUuid = player.getUuid();
-                try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadPlayerTasks(playerUuid);
-                    for (Task task : tasks) {
-                        if (task.getId().equals(taskId)) {
-                            task.setCompleted(!task.isCompleted());
-                            break;
-                        }
-                    }
-                    storage.savePlayerTasks(playerUuid, tasks);
-                    TodoListMod.LOGGER.info("Player {} toggled task: {}", player.getName().getString(), taskId);
-                    sendConfirmation(player, "toggle", taskId, true);
-                    sendSyncTasks(player, tasks);
-                } catch (Exception e) {
-                    TodoListMod.LOGGER.error("Failed to toggle task", e);
-                    sendConfirmation(player, "toggle", taskId, false);
-                }
-            });
+            // Applied at the end of the tick, see ToggleCoalescer
+            executeWhenLoaded(server, player, () -> ToggleCoalescer.requestPersonal(player, taskId));
         });
 
         ServerPlayNetworking.registerGlobalReceiver(REPLACE_TASKS_ID, (server, player, handler, buf, responseSender) -> {
-            List<Task> tasks = readTaskList(buf);
+            if (!PacketRateLimiter.tryAcquire(player, REPLACE_TASKS_ID)) {
+                server.execute(() -> deferResync(player, pendingPersonalResyncs, true));
+                return;
+            }
+            List<Task> tasks = readTaskList(buf, usesCompactCodec(player));
 
-            server.execute(() -> {
+            executeWhenLoaded(server, player, () -> {
                 UUID playerUuid = player.getUuid();
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    storage.savePlayerTasks(playerUuid, tasks);
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager playerTasks = repository.getPlayerTasks(playerUuid);
+                    playerTasks.clearAll();
+                    playerTasks.addTasks(tasks);
+                    savePlayerTasks(server, playerUuid);
                     TodoListMod.LOGGER.info("Player {} replaced all tasks, count={}", player.getName().getString(), tasks.size());
                     sendSyncTasks(player, tasks);
                 } catch (Exception e) {
@@ -168,124 +233,53 @@ public class TaskPackets {
         });
 
         ServerPlayNetworking.registerGlobalReceiver(TEAM_REPLACE_TASKS_ID, (server, player, handler, buf, responseSender) -> {
-            List<Task> tasks = readTaskList(buf);
+            if (!PacketRateLimiter.tryAcquire(player, TEAM_REPLACE_TASKS_ID)) {
+                server.execute(() -> deferResync(player, pendingTeamResyncs, true));
+                return;
+            }
+            List<Task> tasks = readTaskList(buf, usesCompactCodec(player));
 
             server.execute(() -> {
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> currentTasks = storage.loadTeamTasks();
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager teamTasks = repository.getTeamTasks();
                     if (isAdmin(player)) {
-                        storage.saveTeamTasks(tasks);
+                        teamTasks.clearAll();
+                        teamTasks.addTasks(tasks);
+                        saveTeamTasks(server);
                         TodoListMod.LOGGER.info("Player {} replaced team tasks, count={}", player.getName().getString(), tasks.size());
                         broadcastTeamTasks(server, tasks);
                         return;
                     }
 
-                    java.util.Map<String, Task> incomingById = new java.util.HashMap<>();
+                    List<Task> currentTasks = teamTasks.getTasksInOrder();
+                    Map<String, Task> incomingById = new HashMap<>();
                     for (Task t : tasks) {
                         incomingById.put(t.getId(), t);
                     }
 
-                    java.util.UUID playerUuid = player.getUuid();
-                    String selfId = playerUuid.toString();
                     boolean changed = false;
                     boolean hadDeniedChange = false;
+                    List<Task> changedTasks = new ArrayList<>();
 
                     for (Task existing : currentTasks) {
                         Task incoming = incomingById.get(existing.getId());
                         if (incoming == null) {
                             continue;
                         }
-                        Role role = getRoleForTask(player, existing);
-                        boolean projectMember = isProjectMemberForTask(player, existing);
-
-                        boolean localChanged = false;
-
-                        boolean wasCompleted = existing.isCompleted();
-                        if (incoming.isCompleted() != wasCompleted) {
-                            String assignee = existing.getAssigneeUuid();
-                            boolean assigned = assignee != null && !assignee.isEmpty();
-                            boolean assigneeSelf = assigned && assignee.equals(selfId);
-                            ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
-                            Context ctx = new Context(scope, existing.isCompleted(), assigned, assigneeSelf, false, false, projectMember);
-                            boolean canToggle = PermissionCenter.canPerform(Operation.TOGGLE_COMPLETE, role, ctx);
-                            if (canToggle) {
-                                existing.setCompleted(incoming.isCompleted());
-                                localChanged = true;
-                                logTeamOperation(player, existing, Operation.TOGGLE_COMPLETE,
-                                        "completed:" + wasCompleted + "->" + incoming.isCompleted());
-                            } else {
-                                hadDeniedChange = true;
-                                TodoListMod.LOGGER.warn("Player {} attempted to change completion of team task {} without permission",
-                                        player.getName().getString(), existing.getId());
-                            }
-                        }
-
-                        String incomingAssignee = incoming.getAssigneeUuid();
-                        String currentAssignee = existing.getAssigneeUuid();
-                        if ((incomingAssignee != null && !incomingAssignee.equals(currentAssignee)) ||
-                                (incomingAssignee == null && currentAssignee != null)) {
-                            boolean canChange = false;
-                            boolean completed = existing.isCompleted();
-                            boolean assigned = currentAssignee != null && !currentAssignee.isEmpty();
-                            boolean assigneeSelf = assigned && currentAssignee.equals(selfId);
-
-                            Operation opForLog = null;
-
-                            if (incomingAssignee == null) {
-                                ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
-                                Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
-                                canChange = PermissionCenter.canPerform(Operation.ABANDON_TASK, role, ctx);
-                                opForLog = Operation.ABANDON_TASK;
-                            } else if (incomingAssignee.equals(selfId)) {
-                                if (currentAssignee == null) {
-                                    ViewScope scope = ViewScope.TEAM_UNASSIGNED;
-                                    Context ctx = new Context(scope, completed, false, false, false, false, projectMember);
-                                    canChange = PermissionCenter.canPerform(Operation.CLAIM_TASK, role, ctx);
-                                    opForLog = Operation.CLAIM_TASK;
-                                } else if (currentAssignee.equals(selfId)) {
-                                    canChange = false;
-                                } else {
-                                    ViewScope scope = ViewScope.TEAM_ALL;
-                                    Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
-                                    canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
-                                    opForLog = Operation.ASSIGN_OTHERS;
-                                }
-                            } else {
-                                ViewScope scope = ViewScope.TEAM_ALL;
-                                Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
-                                canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
-                                opForLog = Operation.ASSIGN_OTHERS;
-                            }
-
-                            if (canChange) {
-                                existing.setAssigneeUuid(incomingAssignee);
-                                localChanged = true;
-                                String before = currentAssignee == null ? "null" : currentAssignee;
-                                String after = incomingAssignee == null ? "null" : incomingAssignee;
-                                if (opForLog != null) {
-                                    logTeamOperation(player, existing, opForLog,
-                                            "assignee:" + before + "->" + after);
-                                }
-                            } else {
-                                hadDeniedChange = true;
-                                TodoListMod.LOGGER.warn("Player {} attempted to change assignee of team task {} without permission",
-                                        player.getName().getString(), existing.getId());
-                            }
+                        int result = applyMemberTeamChange(player, existing, incoming);
+                        if ((result & CHANGE_DENIED) != 0) {
+                            hadDeniedChange = true;
                         }
-
-                        if (localChanged) {
+                        if ((result & CHANGE_APPLIED) != 0) {
                             changed = true;
+                            changedTasks.add(existing);
                         }
                     }
 
                     if (changed) {
-                        for (Task task : currentTasks) {
-                            updateAssigneeName(server, task);
-                        }
-                        storage.saveTeamTasks(currentTasks);
-                        TodoListMod.LOGGER.info("Player {} updated team tasks via save, count={}", player.getName().getString(), currentTasks.size());
-                        broadcastTeamTasks(server, currentTasks);
+                        commitTeamChanges(server, teamTasks, changedTasks);
+                        TodoListMod.LOGGER.info("Player {} updated team tasks via save, count={}", player.getName().getString(), changedTasks.size());
                     } else {
                         TodoListMod.LOGGER.info("Player {} saved team tasks with no effective changes", player.getName().getString());
                     }
@@ -301,115 +295,139 @@ public class TaskPackets {
             });
         });
 
-        ServerPlayNetworking.registerGlobalReceiver(TEAM_TOGGLE_TASK_ID, (server, player, handler, buf, responseSender) -> {
-            String taskId = buf.readString();
+        ServerPlayNetworking.registerGlobalReceiver(TEAM_SAVE_CHANGES_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, TEAM_SAVE_CHANGES_ID)) {
+                server.execute(() -> deferResync(player, pendingTeamResyncs, true));
+                return;
+            }
+            // [varint count] then per dirty task [varlong base revision][task]
+            boolean compact = usesCompactCodec(player);
+            int count = buf.readVarInt();
+            List<Long> baseRevisions = new ArrayList<>();
+            List<Task> incomingTasks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                baseRevisions.add(buf.readVarLong());
+                incomingTasks.add(readTask(buf, compact));
+            }
 
             server.execute(() -> {
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadTeamTasks();
-                    boolean changed = false;
-                    UUID playerUuid = player.getUuid();
-                    for (Task task : tasks) {
-                        if (task.getId().equals(taskId)) {
-                            Role role = getRoleForTask(player, task);
-                            boolean projectMember = isProjectMemberForTask(player, task);
-                            String assignee = task.getAssigneeUuid();
-                            boolean assigned = assignee != null && !assignee.isEmpty();
-                            boolean assigneeSelf = assigned && assignee.equals(playerUuid.toString());
-                            ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
-                            Context ctx = new Context(scope, task.isCompleted(), assigned, assigneeSelf, false, false, projectMember);
-                            boolean canToggle = PermissionCenter.canPerform(Operation.TOGGLE_COMPLETE, role, ctx);
-                            if (!canToggle) {
-                                TodoListMod.LOGGER.warn("Player {} attempted to toggle team task {} without permission", player.getName().getString(), taskId);
-                                break;
-                            }
-                            boolean before = task.isCompleted();
-                            task.setCompleted(!before);
-                            changed = true;
-                            logTeamOperation(player, task, Operation.TOGGLE_COMPLETE,
-                                    "completed:" + before + "->" + task.isCompleted());
-                            break;
+                    TaskManager teamTasks = TodoListMod.getTaskRepository().getTeamTasks();
+                    boolean admin = isAdmin(player);
+                    boolean needsRefresh = false;
+                    List<Task> changedTasks = new ArrayList<>();
+                    for (int i = 0; i < incomingTasks.size(); i++) {
+                        Task incoming = incomingTasks.get(i);
+                        Task existing = teamTasks.getTask(incoming.getId());
+                        if (existing == null || existing.getRevision() != baseRevisions.get(i)) {
+                            // Changed or removed by someone else since the client saw it
+                            needsRefresh = true;
+                            continue;
+                        }
+                        int result = admin
+                                ? applyAdminTeamChange(player, existing, incoming)
+                                : applyMemberTeamChange(player, existing, incoming);
+                        if ((result & CHANGE_DENIED) != 0) {
+                            needsRefresh = true;
+                        }
+                        if ((result & CHANGE_APPLIED) != 0) {
+                            changedTasks.add(existing);
                         }
                     }
-                    if (changed) {
-                        storage.saveTeamTasks(tasks);
-                        broadcastTeamTasks(server, tasks);
+
+                    if (!changedTasks.isEmpty()) {
+                        commitTeamChanges(server, teamTasks, changedTasks);
+                    }
+                    TodoListMod.LOGGER.info("Player {} saved {} team tasks, {} changed", player.getName().getString(),
+                            incomingTasks.size(), changedTasks.size());
+
+                    if (needsRefresh) {
+                        TodoListMod.LOGGER.info("Player {} had stale or denied team task changes; refreshing client view", player.getName().getString());
+                        sendTeamSyncFull(player, teamTasks);
+                        player.sendMessage(Text.translatable("message.todolist.team_conflict_refreshed"), false);
                     }
                 } catch (Exception e) {
-                    TodoListMod.LOGGER.error("Failed to toggle team task", e);
+                    TodoListMod.LOGGER.error("Failed to save team task changes", e);
                 }
             });
         });
 
+        ServerPlayNetworking.registerGlobalReceiver(TEAM_TOGGLE_TASK_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, TEAM_TOGGLE_TASK_ID)) {
+                return;
+            }
+            String taskId = buf.readString();
+            // Applied at the end of the tick, see ToggleCoalescer
+            server.execute(() -> ToggleCoalescer.requestTeam(player, taskId));
+        });
+
         ServerPlayNetworking.registerGlobalReceiver(TEAM_ASSIGN_TASK_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, TEAM_ASSIGN_TASK_ID)) {
+                return;
+            }
             String taskId = buf.readString();
             boolean hasAssignee = buf.readBoolean();
             String newAssignee = hasAssignee ? buf.readString() : null;
 
             server.execute(() -> {
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadTeamTasks();
-                    boolean changed = false;
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager teamTasks = repository.getTeamTasks();
+                    Task task = teamTasks.getTask(taskId);
+                    if (task == null) {
+                        return;
+                    }
                     UUID playerUuid = player.getUuid();
-                    for (Task task : tasks) {
-                        if (!task.getId().equals(taskId)) {
-                            continue;
-                        }
-                        Role role = getRoleForTask(player, task);
-                        boolean projectMember = isProjectMemberForTask(player, task);
-                        String currentAssignee = task.getAssigneeUuid();
-                        boolean completed = task.isCompleted();
-                        boolean assigned = currentAssignee != null && !currentAssignee.isEmpty();
-                        boolean assigneeSelf = assigned && currentAssignee.equals(playerUuid.toString());
-                        boolean canChange;
-                        Operation opForLog;
-                        if (newAssignee == null) {
-                            ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
-                            Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
-                            canChange = PermissionCenter.canPerform(Operation.ABANDON_TASK, role, ctx);
-                            opForLog = Operation.ABANDON_TASK;
-                        } else if (newAssignee.equals(playerUuid.toString())) {
-                            if (currentAssignee == null) {
-                                ViewScope scope = ViewScope.TEAM_UNASSIGNED;
-                                Context ctx = new Context(scope, completed, false, false, false, false, projectMember);
-                                canChange = PermissionCenter.canPerform(Operation.CLAIM_TASK, role, ctx);
-                                opForLog = Operation.CLAIM_TASK;
-                            } else if (currentAssignee.equals(playerUuid.toString())) {
-                                canChange = false;
-                                opForLog = null;
-                            } else {
-                                ViewScope scope = ViewScope.TEAM_ALL;
-                                Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
-                                canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
-                                opForLog = Operation.ASSIGN_OTHERS;
-                            }
+                    Role role = getRoleForTask(player, task);
+                    boolean projectMember = isProjectMemberForTask(player, task);
+                    String currentAssignee = task.getAssigneeUuid();
+                    boolean completed = task.isCompleted();
+                    boolean assigned = currentAssignee != null && !currentAssignee.isEmpty();
+                    boolean assigneeSelf = assigned && currentAssignee.equals(playerUuid.toString());
+                    boolean canChange;
+                    Operation opForLog;
+                    if (newAssignee == null) {
+                        ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
+                        Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
+                        canChange = PermissionCenter.canPerform(Operation.ABANDON_TASK, role, ctx);
+                        opForLog = Operation.ABANDON_TASK;
+                    } else if (newAssignee.equals(playerUuid.toString())) {
+                        if (currentAssignee == null) {
+                            ViewScope scope = ViewScope.TEAM_UNASSIGNED;
+                            Context ctx = new Context(scope, completed, false, false, false, false, projectMember);
+                            canChange = PermissionCenter.canPerform(Operation.CLAIM_TASK, role, ctx);
+                            opForLog = Operation.CLAIM_TASK;
+                        } else if (currentAssignee.equals(playerUuid.toString())) {
+                            canChange = false;
+                            opForLog = null;
                         } else {
                             ViewScope scope = ViewScope.TEAM_ALL;
                             Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
                             canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
                             opForLog = Operation.ASSIGN_OTHERS;
                         }
-                        if (!canChange) {
-                            TodoListMod.LOGGER.warn("Player {} attempted to assign team task {} without permission", player.getName().getString(), taskId);
-                            break;
-                        }
-                        String before = currentAssignee == null ? "null" : currentAssignee;
-                        String after = newAssignee == null ? "null" : newAssignee;
-                        task.setAssigneeUuid(newAssignee);
-                        updateAssigneeName(server, task);
-                        changed = true;
-                        if (opForLog != null) {
-                            logTeamOperation(player, task, opForLog,
-                                    "assignee:" + before + "->" + after);
-                        }
-                        break;
+                    } else {
+                        ViewScope scope = ViewScope.TEAM_ALL;
+                        Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
+                        canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
+                        opForLog = Operation.ASSIGN_OTHERS;
                     }
-                    if (changed) {
-                        storage.saveTeamTasks(tasks);
-                        broadcastTeamTasks(server, tasks);
+                    if (!canChange) {
+                        TodoListMod.LOGGER.warn("Player {} attempted to assign team task {} without permission", player.getName().getString(), taskId);
+                        return;
+                    }
+                    String before = currentAssignee == null ? "null" : currentAssignee;
+                    String after = newAssignee == null ? "null" : newAssignee;
+                    task.setAssigneeUuid(newAssignee);
+                    updateAssigneeName(server, task);
+                    task.setRevision(task.getRevision() + 1);
+                    teamTasks.updateTask(task);
+                    if (opForLog != null) {
+                        logTeamOperation(player, task, opForLog,
+                                "assignee:" + before + "->" + after);
                     }
+                    saveTeamTasks(server);
+                    broadcastTeamDelta(server, List.of(task), Collections.emptyList());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to assign team task", e);
                 }
@@ -419,10 +437,14 @@ public class TaskPackets {
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             ServerPlayerEntity player = handler.getPlayer();
             UUID playerUuid = player.getUuid();
-            server.execute(() -> {
+            // Sync once the player's data has been read off-thread by the data cache
+            server.execute(() -> TodoListMod.getPlayerDataCache().ensureLoaded(server, playerUuid).whenCompleteAsync((loaded, error) -> {
+                if (player.isDisconnected()) {
+                    return;
+                }
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> tasks = storage.loadPlayerTasks(playerUuid);
+                    TaskRepository repository = TodoListMod.getTaskRepository();
+                    TaskManager playerTasks = repository.getPlayerTasks(playerUuid);
                     
                     // Lazy migration for player tasks
                     boolean changed = false;
@@ -436,6 +458,7 @@ public class TaskPackets {
                         }
                     }
                     
+                    List<Task> tasks = playerTasks.getTasksInOrder();
                     if (defaultProjectId != null) {
                         for (Task t : tasks) {
                             if (t.getProjectId() == null) {
@@ -446,27 +469,50 @@ public class TaskPackets {
                     }
                     
                     if (changed) {
-                        storage.savePlayerTasks(playerUuid, tasks);
+                        savePlayerTasks(server, playerUuid);
                         TodoListMod.LOGGER.info("Migrated {} tasks for player {} to default project", tasks.size(), player.getName().getString());
                     }
                     
-                    sendSyncTasks(player, tasks);
+                    // Large lists are streamed in chunks, first page of open tasks first
+                    if (!ChunkedSync.start(player, ChunkedSync.KIND_PERSONAL, 0, playerTasks)) {
+                        sendSyncTasks(player, tasks);
+                    }
                     TodoListMod.LOGGER.info("Synced {} tasks to player {}", tasks.size(), player.getName().getString());
-                    List<Task> teamTasks = storage.loadTeamTasks();
-                    sendTeamSyncTasks(player, teamTasks);
+                    sendTeamSyncFull(player, repository.getTeamTasks());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to sync tasks to player on join", e);
                 }
+            }, server));
+        });
+
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID playerUuid = handler.getPlayer().getUuid();
+            server.execute(() -> {
+                teamRevisions.remove(playerUuid);
+                pendingPersonalResyncs.remove(playerUuid);
+                pendingTeamResyncs.remove(playerUuid);
             });
         });
 
+        ServerTickEvents.END_SERVER_TICK.register(TaskPackets::serveDeferredResyncs);
+
+        ChunkedSync.register();
+        PacketRateLimiter.register();
+        ToggleCoalescer.register();
+        // After ToggleCoalescer, so toggles applied at the end of a tick are sent in that tick
+        BroadcastBatcher.register();
+
         ServerPlayNetworking.registerGlobalReceiver(TEAM_REQUEST_SYNC_ID, (server, player, handler, buf, responseSender) -> {
+            if (!PacketRateLimiter.tryAcquire(player, TEAM_REQUEST_SYNC_ID)) {
+                // The client ignores deltas until this sync arrives, so it must not be lost
+                server.execute(() -> deferResync(player, pendingTeamResyncs, false));
+                return;
+            }
             server.execute(() -> {
                 try {
-                    TaskStorage storage = TodoListMod.getTaskStorage();
-                    List<Task> teamTasks = storage.loadTeamTasks();
-                    sendTeamSyncTasks(player, teamTasks);
-                    TodoListMod.LOGGER.info("Player {} requested team task sync, count={}", player.getName().getString(), teamTasks.size());
+                    TaskManager teamTasks = TodoListMod.getTaskRepository().getTeamTasks();
+                    sendTeamSyncFull(player, teamTasks);
+                    TodoListMod.LOGGER.info("Player {} requested team task sync, count={}", player.getName().getString(), teamTasks.getTaskCount());
                 } catch (Exception e) {
                     TodoListMod.LOGGER.error("Failed to handle team task sync request", e);
                 }
@@ -493,16 +539,460 @@ public class TaskPackets {
         ServerPlayNetworking.send(player, TASK_CONFIRMED_ID, buf);
     }
 
+    /**
+     * Acknowledge an applied patch with the task's new revision
+     */
+    private static void sendTaskRevision(ServerPlayerEntity player, Task task) {
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        buf.writeString(task.getId());
+        buf.writeVarLong(task.getRevision());
+        ServerPlayNetworking.send(player, TASK_REVISION_ID, buf);
+    }
+
+    /**
+     * Remember that a player needs a full sync after a rate limited packet. Dropped edits are
+     * answered with the server's list so the client does not keep showing them as saved.
+     */
+    private static void deferResync(ServerPlayerEntity player, Set<UUID> pending, boolean droppedEdit) {
+        if (pending.add(player.getUuid()) && droppedEdit) {
+            player.sendMessage(Text.translatable("message.todolist.changes_rate_limited"), false);
+        }
+    }
+
+    private static void serveDeferredResyncs(MinecraftServer server) {
+        if (pendingPersonalResyncs.isEmpty() && pendingTeamResyncs.isEmpty()) {
+            return;
+        }
+        TaskRepository repository = TodoListMod.getTaskRepository();
+        for (Iterator<UUID> it = pendingPersonalResyncs.iterator(); it.hasNext(); ) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(it.next());
+            if (player == null || !repository.isPlayerLoaded(player.getUuid())) {
+                it.remove();
+                continue;
+            }
+            if (PacketRateLimiter.tryAcquireDeferred(player, REPLACE_TASKS_ID)) {
+                it.remove();
+                try {
+                    sendSyncTasks(player, repository.getPlayerTasks(player.getUuid()).getTasksInOrder());
+                } catch (Exception e) {
+                    TodoListMod.LOGGER.error("Failed to resync tasks of {}", player.getName().getString(), e);
+                }
+            }
+        }
+        for (Iterator<UUID> it = pendingTeamResyncs.iterator(); it.hasNext(); ) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(it.next());
+            if (player == null) {
+                it.remove();
+                continue;
+            }
+            if (PacketRateLimiter.tryAcquireDeferred(player, TEAM_REQUEST_SYNC_ID)) {
+                it.remove();
+                try {
+                    sendTeamSyncFull(player, repository.getTeamTasks());
+                } catch (Exception e) {
+                    TodoListMod.LOGGER.error("Failed to resync team tasks of {}", player.getName().getString(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a personal task handler on the server thread once the player's tasks are resident,
+     * so a packet that beats the join-time load never reads the task file on the tick
+     */
+    private static void executeWhenLoaded(MinecraftServer server, ServerPlayerEntity player, Runnable action) {
+        server.execute(() -> TodoListMod.getPlayerDataCache().runWhenLoaded(server, player.getUuid(), action));
+    }
+
     private static void sendSyncTasks(ServerPlayerEntity player, List<Task> tasks) {
+        ChunkedSync.cancel(player.getUuid(), ChunkedSync.KIND_PERSONAL);
         PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        writeTaskList(buf, tasks);
-        ServerPlayNetworking.send(player, SYNC_TASKS_ID, buf);
+        writeServerTaskList(buf, tasks, usesCompactCodec(player));
+        CompressedPayload.send(player, SYNC_TASKS_ID, buf);
+    }
+
+    /**
+     * Drop the team tasks of a deleted team project and its storage shard
+     */
+    public static void onTeamProjectDeleted(MinecraftServer server, String projectId) {
+        try {
+            TaskRepository repository = TodoListMod.getTaskRepository();
+            List<String> removedIds = new ArrayList<>();
+            for (Task task : repository.getTeamTasks().getTasksByProject(projectId)) {
+                removedIds.add(task.getId());
+            }
+            int removed = repository.removeTeamProjectTasks(projectId);
+            saveTeamTasks(server);
+            if (removed > 0) {
+                TodoListMod.LOGGER.info("Removed {} team tasks of deleted project {}", removed, projectId);
+                broadcastTeamDelta(server, Collections.emptyList(), removedIds);
+            }
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to remove team tasks of deleted project {}", projectId, e);
+        }
     }
 
+    /**
+     * Send the team tasks this player is interested in as a new revision
+     */
     private static void sendTeamSyncTasks(ServerPlayerEntity player, List<Task> tasks) {
+        List<Task> interested = ProjectSubscriptions.filterInterested(player, tasks);
+        sendTeamSyncEncoded(player, new CompressedPayload.Body(encodeTaskList(interested, usesCompactCodec(player))));
+    }
+
+    /**
+     * Send an already encoded team list; only the small revision header is written per player.
+     * Clients without the delta channel predate revisions and get the baseline layout, just the list.
+     */
+    private static void sendTeamSyncEncoded(ServerPlayerEntity player, CompressedPayload.Body encodedTasks) {
+        ChunkedSync.cancel(player.getUuid(), ChunkedSync.KIND_TEAM);
+        PacketByteBuf header = new PacketByteBuf(io.netty.buffer.Unpooled.buffer(10));
+        if (ServerPlayNetworking.canSend(player, TEAM_DELTA_TASKS_ID)) {
+            header.writeVarLong(nextTeamRevision(player));
+        }
+        CompressedPayload.send(player, TEAM_SYNC_TASKS_ID, header, encodedTasks);
+    }
+
+    /**
+     * Full team sync for one player, chunked when the list is large
+     */
+    private static void sendTeamSyncFull(ServerPlayerEntity player, TaskManager teamTasks) {
+        long revision = teamRevisions.getOrDefault(player.getUuid(), 0L) + 1;
+        if (ChunkedSync.start(player, ChunkedSync.KIND_TEAM, revision, teamTasks)) {
+            teamRevisions.put(player.getUuid(), revision);
+            return;
+        }
+        sendTeamSyncTasks(player, teamTasks.getTasksInOrder());
+    }
+
+    private static long nextTeamRevision(ServerPlayerEntity player) {
+        long revision = teamRevisions.getOrDefault(player.getUuid(), 0L) + 1;
+        teamRevisions.put(player.getUuid(), revision);
+        return revision;
+    }
+
+    /**
+     * Queue changed and removed team tasks; BroadcastBatcher merges everything queued within a
+     * tick into one delta per player
+     */
+    private static void broadcastTeamDelta(MinecraftServer server, List<Task> changed, List<String> removedIds) {
+        BroadcastBatcher.queueTeamDelta(changed, removedIds);
+    }
+
+    /**
+     * Send the changed and removed team tasks to the players interested in them.
+     * Removals are only ids and go to everyone; clients that cannot receive deltas get their full
+     * list of interesting tasks.
+     * Players receiving the same set of tasks with the same codec share one encoded (and compressed) body.
+     */
+    static void sendTeamDeltaNow(MinecraftServer server, List<Task> changed, List<String> removedIds) {
+        if (changed.isEmpty() && removedIds.isEmpty()) {
+            return;
+        }
+        Map<ServerPlayerEntity, List<Task>> perPlayer = new LinkedHashMap<>();
+        if (!removedIds.isEmpty()) {
+            for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+                perPlayer.put(player, new ArrayList<>());
+            }
+        }
+        Map<String, List<ServerPlayerEntity>> recipientsByProject = new HashMap<>();
+        // A moved task also goes to the players of its old project, so their copy leaves it
+        Map<String, String> movedFrom = TodoListMod.getTaskRepository().drainTeamMoves();
+        for (Task task : changed) {
+            Set<ServerPlayerEntity> recipients = new LinkedHashSet<>(recipientsByProject.computeIfAbsent(task.getProjectId(),
+                    projectId -> ProjectSubscriptions.getRecipients(server, projectId)));
+            String previous = movedFrom.get(task.getId());
+            if (previous != null) {
+                recipients.addAll(recipientsByProject.computeIfAbsent(previous,
+                        projectId -> ProjectSubscriptions.getRecipients(server, projectId)));
+            }
+            for (ServerPlayerEntity player : recipients) {
+                perPlayer.computeIfAbsent(player, p -> new ArrayList<>()).add(task);
+            }
+        }
+
+        // Indexed by codec: 0 = v1, 1 = compact
+        List<Map<List<Task>, CompressedPayload.Body>> bodies = List.of(new HashMap<>(), new HashMap<>());
+        List<Map<List<Task>, CompressedPayload.Body>> fullLists = List.of(new HashMap<>(), new HashMap<>());
+        List<Task> teamTasks = null;
+        for (Map.Entry<ServerPlayerEntity, List<Task>> entry : perPlayer.entrySet()) {
+            ServerPlayerEntity player = entry.getKey();
+            boolean compact = usesCompactCodec(player);
+            int codec = compact ? 1 : 0;
+            if (!ServerPlayNetworking.canSend(player, TEAM_DELTA_TASKS_ID)) {
+                if (teamTasks == null) {
+                    try {
+                        teamTasks = TodoListMod.getTaskRepository().getTeamTasks().getTasksInOrder();
+                    } catch (Exception e) {
+                        TodoListMod.LOGGER.error("Failed to load team tasks for full sync", e);
+                        return;
+                    }
+                }
+                sendTeamSyncEncoded(player, fullLists.get(codec).computeIfAbsent(ProjectSubscriptions.filterInterested(player, teamTasks),
+                        tasks -> new CompressedPayload.Body(encodeTaskList(tasks, compact))));
+                continue;
+            }
+            CompressedPayload.Body body = bodies.get(codec).computeIfAbsent(entry.getValue(),
+                    tasks -> new CompressedPayload.Body(encodeDeltaBody(tasks, removedIds, compact)));
+            sendTeamDelta(player, null, body);
+        }
+    }
+
+    /**
+     * Replace a player's copy of one project's team tasks, e.g. after they start following it
+     */
+    public static void sendTeamProjectRefresh(ServerPlayerEntity player, String projectId) {
+        try {
+            TaskManager teamTasks = TodoListMod.getTaskRepository().getTeamTasks();
+            if (!ServerPlayNetworking.canSend(player, TEAM_DELTA_TASKS_ID)) {
+                sendTeamSyncTasks(player, teamTasks.getTasksInOrder());
+                return;
+            }
+            sendTeamDelta(player, projectId, new CompressedPayload.Body(
+                    encodeDeltaBody(teamTasks.getTasksByProject(projectId), Collections.emptyList(), usesCompactCodec(player))));
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to refresh team project {} for {}", projectId, player.getName().getString(), e);
+        }
+    }
+
+    /**
+     * One revision step: [base][revision][reset project or none] followed by the shared body
+     * [changed tasks][removed ids]
+     */
+    private static void sendTeamDelta(ServerPlayerEntity player, String resetProjectId, CompressedPayload.Body body) {
+        long revision = nextTeamRevision(player);
+        PacketByteBuf header = new PacketByteBuf(io.netty.buffer.Unpooled.buffer(24));
+        header.writeVarLong(revision - 1);
+        header.writeVarLong(revision);
+        header.writeBoolean(resetProjectId != null);
+        if (resetProjectId != null) {
+            header.writeString(resetProjectId);
+        }
+        CompressedPayload.send(player, TEAM_DELTA_TASKS_ID, header, body);
+    }
+
+    static ByteBuf encodeTaskList(List<Task> tasks) {
+        return encodeTaskList(tasks, false);
+    }
+
+    static ByteBuf encodeTaskList(List<Task> tasks, boolean compact) {
         PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
-        writeTaskList(buf, tasks);
-        ServerPlayNetworking.send(player, TEAM_SYNC_TASKS_ID, buf);
+        writeServerTaskList(buf, tasks, compact);
+        return buf;
+    }
+
+    private static ByteBuf encodeDeltaBody(List<Task> changed, List<String> removedIds, boolean compact) {
+        PacketByteBuf buf = new PacketByteBuf(io.netty.buffer.Unpooled.buffer());
+        writeServerTaskList(buf, changed, compact);
+        buf.writeVarInt(removedIds.size());
+        for (String id : removedIds) {
+            buf.writeString(id);
+        }
+        return buf;
+    }
+
+    /**
+     * Per-player header followed by a shared body. The body is wrapped as a slice, so every
+     * packet has its own read position over the same bytes and nothing is re-encoded.
+     */
+    static PacketByteBuf withBody(ByteBuf header, ByteBuf body) {
+        return new PacketByteBuf(io.netty.buffer.Unpooled.wrappedBuffer(header, body.slice()));
+    }
+
+    /**
+     * Apply the completion and assignee changes a player without admin rights may make to one
+     * team task, checking permissions for each
+     *
+     * @return CHANGE_APPLIED and / or CHANGE_DENIED
+     */
+    private static int applyMemberTeamChange(ServerPlayerEntity player, Task existing, Task incoming) {
+        String selfId = player.getUuid().toString();
+        Role role = getRoleForTask(player, existing);
+        boolean projectMember = isProjectMemberForTask(player, existing);
+
+        int result = 0;
+
+        boolean wasCompleted = existing.isCompleted();
+        if (incoming.isCompleted() != wasCompleted) {
+            String assignee = existing.getAssigneeUuid();
+            boolean assigned = assignee != null && !assignee.isEmpty();
+            boolean assigneeSelf = assigned && assignee.equals(selfId);
+            ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
+            Context ctx = new Context(scope, existing.isCompleted(), assigned, assigneeSelf, false, false, projectMember);
+            boolean canToggle = PermissionCenter.canPerform(Operation.TOGGLE_COMPLETE, role, ctx);
+            if (canToggle) {
+                existing.setCompleted(incoming.isCompleted());
+                result |= CHANGE_APPLIED;
+                logTeamOperation(player, existing, Operation.TOGGLE_COMPLETE,
+                        "completed:" + wasCompleted + "->" + incoming.isCompleted());
+            } else {
+                result |= CHANGE_DENIED;
+                TodoListMod.LOGGER.warn("Player {} attempted to change completion of team task {} without permission",
+                        player.getName().getString(), existing.getId());
+            }
+        }
+
+        String incomingAssignee = incoming.getAssigneeUuid();
+        String currentAssignee = existing.getAssigneeUuid();
+        if ((incomingAssignee != null && !incomingAssignee.equals(currentAssignee)) ||
+                (incomingAssignee == null && currentAssignee != null)) {
+            boolean canChange = false;
+            boolean completed = existing.isCompleted();
+            boolean assigned = currentAssignee != null && !currentAssignee.isEmpty();
+            boolean assigneeSelf = assigned && currentAssignee.equals(selfId);
+
+            Operation opForLog = null;
+
+            if (incomingAssignee == null) {
+                ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
+                Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
+                canChange = PermissionCenter.canPerform(Operation.ABANDON_TASK, role, ctx);
+                opForLog = Operation.ABANDON_TASK;
+            } else if (incomingAssignee.equals(selfId)) {
+                if (currentAssignee == null) {
+                    ViewScope scope = ViewScope.TEAM_UNASSIGNED;
+                    Context ctx = new Context(scope, completed, false, false, false, false, projectMember);
+                    canChange = PermissionCenter.canPerform(Operation.CLAIM_TASK, role, ctx);
+                    opForLog = Operation.CLAIM_TASK;
+                } else if (currentAssignee.equals(selfId)) {
+                    canChange = false;
+                } else {
+                    ViewScope scope = ViewScope.TEAM_ALL;
+                    Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
+                    canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
+                    opForLog = Operation.ASSIGN_OTHERS;
+                }
+            } else {
+                ViewScope scope = ViewScope.TEAM_ALL;
+                Context ctx = new Context(scope, completed, assigned, assigneeSelf, false, false, projectMember);
+                canChange = PermissionCenter.canPerform(Operation.ASSIGN_OTHERS, role, ctx);
+                opForLog = Operation.ASSIGN_OTHERS;
+            }
+
+            if (canChange) {
+                existing.setAssigneeUuid(incomingAssignee);
+                result |= CHANGE_APPLIED;
+                String before = currentAssignee == null ? "null" : currentAssignee;
+                String after = incomingAssignee == null ? "null" : incomingAssignee;
+                if (opForLog != null) {
+                    logTeamOperation(player, existing, opForLog,
+                            "assignee:" + before + "->" + after);
+                }
+            } else {
+                result |= CHANGE_DENIED;
+                TodoListMod.LOGGER.warn("Player {} attempted to change assignee of team task {} without permission",
+                        player.getName().getString(), existing.getId());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Admins may change any field of an existing team task
+     */
+    private static int applyAdminTeamChange(ServerPlayerEntity player, Task existing, Task incoming) {
+        int result = 0;
+        TaskPatch patch = TaskPatch.diff(existing, incoming);
+        if (patch != null) {
+            patch.applyTo(existing);
+            result |= CHANGE_APPLIED;
+        }
+        if (!Objects.equals(existing.getAssigneeUuid(), incoming.getAssigneeUuid())) {
+            existing.setAssigneeUuid(incoming.getAssigneeUuid());
+            result |= CHANGE_APPLIED;
+        }
+        if (!Objects.equals(existing.getProjectId(), incoming.getProjectId())) {
+            existing.setProjectId(incoming.getProjectId());
+            result |= CHANGE_APPLIED;
+        }
+        if (result != 0) {
+            logTeamOperation(player, existing, Operation.EDIT_TASK, "admin save");
+        }
+        return result;
+    }
+
+    /**
+     * Apply one player's coalesced personal toggles, then save and sync once
+     */
+    static void applyPersonalToggles(MinecraftServer server, ServerPlayerEntity player, List<String> taskIds) {
+        UUID playerUuid = player.getUuid();
+        try {
+            TaskManager tasks = TodoListMod.getTaskRepository().getPlayerTasks(playerUuid);
+            for (String taskId : taskIds) {
+                tasks.toggleTaskCompletion(taskId);
+                Task toggled = tasks.getTask(taskId);
+                if (toggled != null) {
+                    toggled.setRevision(toggled.getRevision() + 1);
+                }
+                TodoListMod.LOGGER.info("Player {} toggled task: {}", player.getName().getString(), taskId);
+                sendConfirmation(player, "toggle", taskId, true);
+            }
+            savePlayerTasks(server, playerUuid);
+            sendSyncTasks(player, tasks.getTasksInOrder());
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to toggle tasks", e);
+            for (String taskId : taskIds) {
+                sendConfirmation(player, "toggle", taskId, false);
+            }
+        }
+    }
+
+    /**
+     * Toggle one team task if the player may; returns the task when it changed.
+     * Saving and broadcasting is left to commitTeamToggles.
+     */
+    static Task applyTeamToggle(ServerPlayerEntity player, String taskId) {
+        try {
+            TaskManager teamTasks = TodoListMod.getTaskRepository().getTeamTasks();
+            Task task = teamTasks.getTask(taskId);
+            if (task == null) {
+                return null;
+            }
+            UUID playerUuid = player.getUuid();
+            Role role = getRoleForTask(player, task);
+            boolean projectMember = isProjectMemberForTask(player, task);
+            String assignee = task.getAssigneeUuid();
+            boolean assigned = assignee != null && !assignee.isEmpty();
+            boolean assigneeSelf = assigned && assignee.equals(playerUuid.toString());
+            ViewScope scope = assigneeSelf ? ViewScope.TEAM_ASSIGNED : ViewScope.TEAM_ALL;
+            Context ctx = new Context(scope, task.isCompleted(), assigned, assigneeSelf, false, false, projectMember);
+            boolean canToggle = PermissionCenter.canPerform(Operation.TOGGLE_COMPLETE, role, ctx);
+            if (!canToggle) {
+                TodoListMod.LOGGER.warn("Player {} attempted to toggle team task {} without permission", player.getName().getString(), taskId);
+                return null;
+            }
+            boolean before = task.isCompleted();
+            teamTasks.toggleTaskCompletion(taskId);
+            task.setRevision(task.getRevision() + 1);
+            logTeamOperation(player, task, Operation.TOGGLE_COMPLETE,
+                    "completed:" + before + "->" + task.isCompleted());
+            return task;
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to toggle team task", e);
+            return null;
+        }
+    }
+
+    static void commitTeamToggles(MinecraftServer server, List<Task> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        saveTeamTasks(server);
+        broadcastTeamDelta(server, changed, Collections.emptyList());
+    }
+
+    /**
+     * Bump, re-index, persist and broadcast team tasks changed by a save
+     */
+    private static void commitTeamChanges(MinecraftServer server, TaskManager teamTasks, List<Task> changedTasks) {
+        for (Task task : changedTasks) {
+            updateAssigneeName(server, task);
+            task.setRevision(task.getRevision() + 1);
+            teamTasks.updateTask(task);
+        }
+        saveTeamTasks(server);
+        broadcastTeamDelta(server, changedTasks, Collections.emptyList());
     }
 
     private static void logTeamOperation(ServerPlayerEntity player, Task task, Operation op, String detail) {
@@ -516,9 +1006,32 @@ public class TaskPackets {
         }
     }
 
-        private static void broadcastTeamTasks(net.minecraft.server.MinecraftServer server, List<Task> tasks) {
+    private static void broadcastTeamTasks(net.minecraft.server.MinecraftServer server, List<Task> tasks) {
+        // Everyone gets the full list now, a queued delta could only resurrect replaced tasks
+        BroadcastBatcher.discardTeamDelta();
+        // Encode once per codec and visible list, every player only gets their own revision header
+        List<Map<List<Task>, CompressedPayload.Body>> encoded = List.of(new HashMap<>(), new HashMap<>());
         for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
-            sendTeamSyncTasks(player, tasks);
+            boolean compact = usesCompactCodec(player);
+            int codec = compact ? 1 : 0;
+            sendTeamSyncEncoded(player, encoded.get(codec).computeIfAbsent(ProjectSubscriptions.filterInterested(player, tasks),
+                    visible -> new CompressedPayload.Body(encodeTaskList(visible, compact))));
+        }
+    }
+
+    private static void savePlayerTasks(MinecraftServer server, UUID playerUuid) {
+        try {
+            TaskSaveDebouncer.requestPlayerSave(server, playerUuid);
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to save tasks for player {}", playerUuid, e);
+        }
+    }
+
+    private static void saveTeamTasks(MinecraftServer server) {
+        try {
+            TaskSaveDebouncer.requestTeamSave(server);
+        } catch (Exception e) {
+            TodoListMod.LOGGER.error("Failed to save team tasks", e);
         }
     }
 
@@ -529,7 +1042,7 @@ public class TaskPackets {
             return;
         }
         try {
-            java.util.UUID uuid = java.util.UUID.fromString(assigneeUuid);
+            UUID uuid = UUID.fromString(assigneeUuid);
             ServerPlayerEntity assignee = server.getPlayerManager().getPlayer(uuid);
             if (assignee != null) {
                 String name = assignee.getName().getString();
@@ -614,6 +1127,62 @@ public class TaskPackets {
 
     // Serialization helpers
 
+    /**
+     * Whether this player's client speaks the compact task codec (see TaskWireCodec)
+     */
+    public static boolean usesCompactCodec(ServerPlayerEntity player) {
+        return ServerPlayNetworking.canSend(player, CODEC_V2_ID);
+    }
+
+    /**
+     * Write a task list sent from the server. Compact lists start with COMPACT_LIST_TAG; v1
+     * lists keep the baseline layout, so clients without the compact codec read them as before.
+     * The server may pick v1 before it has seen a client's channel registration, so clients
+     * go by the tag instead of their own view of the connection (see readServerTaskList).
+     */
+    public static void writeServerTaskList(PacketByteBuf buf, List<Task> tasks, boolean compact) {
+        if (compact) {
+            buf.writeByte(COMPACT_LIST_TAG);
+        }
+        writeTaskList(buf, tasks, compact);
+    }
+
+    /**
+     * Read a list written by writeServerTaskList. A v1 list starts with its int count, whose
+     * first byte is 0 for any list that fits in a packet, so it never looks like the tag.
+     */
+    public static List<Task> readServerTaskList(PacketByteBuf buf) {
+        if (buf.isReadable() && buf.getByte(buf.readerIndex()) == COMPACT_LIST_TAG) {
+            buf.readByte();
+            return TaskWireCodec.readTaskList(buf);
+        }
+        return readTaskList(buf);
+    }
+
+    public static void writeTaskList(PacketByteBuf buf, List<Task> tasks, boolean compact) {
+        if (compact) {
+            TaskWireCodec.writeTaskList(buf, tasks);
+        } else {
+            writeTaskList(buf, tasks);
+        }
+    }
+
+    public static List<Task> readTaskList(PacketByteBuf buf, boolean compact) {
+        return compact ? TaskWireCodec.readTaskList(buf) : readTaskList(buf);
+    }
+
+    public static void writeTask(PacketByteBuf buf, Task task, boolean compact) {
+        if (compact) {
+            TaskWireCodec.writeTask(buf, task);
+        } else {
+            writeTask(buf, task);
+        }
+    }
+
+    public static Task readTask(PacketByteBuf buf, boolean compact) {
+        return compact ? TaskWireCodec.readTask(buf) : readTask(buf);
+    }
+
     /**
      * Write task list to buffer
      */
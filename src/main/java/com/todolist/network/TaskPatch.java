@@ -0,0 +1,147 @@
+package com.todolist.network;
+
+import com.todolist.task.Task;
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Field-level change to one task (PATCH_TASK)
+ *
+ * Layout: [string id][varlong base revision][varint field mask][changed fields in mask order]
+ * The server applies it only when the task is still at the base revision.
+ */
+public final class TaskPatch {
+    public static final int FIELD_TITLE = 1;
+    public static final int FIELD_DESCRIPTION = 1 << 1;
+    public static final int FIELD_PRIORITY = 1 << 2;
+    public static final int FIELD_TAGS = 1 << 3;
+    public static final int FIELD_DUE_DATE = 1 << 4;
+    public static final int FIELD_COMPLETED = 1 << 5;
+
+    private final String taskId;
+    private final long baseRevision;
+    private final int mask;
+    private final String title;
+    private final String description;
+    private final Task.Priority priority;
+    private final List<String> tags;
+    private final Long dueDate;
+    private final boolean completed;
+
+    private TaskPatch(String taskId, long baseRevision, int mask, String title, String description,
+                      Task.Priority priority, List<String> tags, Long dueDate, boolean completed) {
+        this.taskId = taskId;
+        this.baseRevision = baseRevision;
+        this.mask = mask;
+        this.title = title;
+        this.description = description;
+        this.priority = priority;
+        this.tags = tags;
+        this.dueDate = dueDate;
+        this.completed = completed;
+    }
+
+    /**
+     * Patch turning base into current, or null when none of the patchable fields differ
+     */
+    public static TaskPatch diff(Task base, Task current) {
+        int mask = 0;
+        if (!Objects.equals(base.getTitle(), current.getTitle())) mask |= FIELD_TITLE;
+        if (!Objects.equals(base.getDescription(), current.getDescription())) mask |= FIELD_DESCRIPTION;
+        if (base.getPriority() != current.getPriority()) mask |= FIELD_PRIORITY;
+        if (!base.getTags().equals(current.getTags())) mask |= FIELD_TAGS;
+        if (!Objects.equals(base.getDueDate(), current.getDueDate())) mask |= FIELD_DUE_DATE;
+        if (base.isCompleted() != current.isCompleted()) mask |= FIELD_COMPLETED;
+        if (mask == 0) {
+            return null;
+        }
+        return new TaskPatch(current.getId(), base.getRevision(), mask, current.getTitle(), current.getDescription(),
+                current.getPriority(), new ArrayList<>(current.getTags()), current.getDueDate(), current.isCompleted());
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public long getBaseRevision() {
+        return baseRevision;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Copy the patched fields onto a task; the revision is left to the caller
+     */
+    public void applyTo(Task task) {
+        if ((mask & FIELD_TITLE) != 0) task.setTitle(title);
+        if ((mask & FIELD_DESCRIPTION) != 0) task.setDescription(description);
+        if ((mask & FIELD_PRIORITY) != 0) task.setPriority(priority);
+        if ((mask & FIELD_TAGS) != 0) task.setTags(tags);
+        if ((mask & FIELD_DUE_DATE) != 0) task.setDueDate(dueDate);
+        if ((mask & FIELD_COMPLETED) != 0) task.setCompleted(completed);
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeString(taskId);
+        buf.writeVarLong(baseRevision);
+        buf.writeVarInt(mask);
+        if ((mask & FIELD_TITLE) != 0) buf.writeString(title != null ? title : "");
+        if ((mask & FIELD_DESCRIPTION) != 0) buf.writeString(description != null ? description : "");
+        if ((mask & FIELD_PRIORITY) != 0) buf.writeEnumConstant(priority != null ? priority : Task.Priority.MEDIUM);
+        if ((mask & FIELD_TAGS) != 0) buf.writeCollection(tags, (tagBuf, tag) -> tagBuf.writeString(tag));
+        if ((mask & FIELD_DUE_DATE) != 0) {
+            buf.writeBoolean(dueDate != null);
+            if (dueDate != null) {
+                buf.writeVarLong(dueDate);
+            }
+        }
+        if ((mask & FIELD_COMPLETED) != 0) buf.writeBoolean(completed);
+    }
+
+    public static TaskPatch read(PacketByteBuf buf) {
+        String taskId = buf.readString();
+        long baseRevision = buf.readVarLong();
+        int mask = buf.readVarInt();
+        String title = (mask & FIELD_TITLE) != 0 ? buf.readString() : null;
+        String description = (mask & FIELD_DESCRIPTION) != 0 ? buf.readString() : null;
+        Task.Priority priority = (mask & FIELD_PRIORITY) != 0 ? buf.readEnumConstant(Task.Priority.class) : null;
+        List<String> tags = (mask & FIELD_TAGS) != 0 ? buf.readList(tagBuf -> tagBuf.readString()) : null;
+        Long dueDate = null;
+        if ((mask & FIELD_DUE_DATE) != 0 && buf.readBoolean()) {
+            dueDate = buf.readVarLong();
+        }
+        boolean completed = (mask & FIELD_COMPLETED) != 0 && buf.readBoolean();
+        return new TaskPatch(taskId, baseRevision, mask, title, description, priority, tags, dueDate, completed);
+    }
+
+    /**
+     * Whether two versions of a task differ in anything a patch cannot carry
+     */
+    public static boolean needsFullUpdate(Task base, Task current) {
+        if (!Objects.equals(base.getProjectId(), current.getProjectId())) {
+            return true;
+        }
+        List<Task> baseSubtasks = base.getSubtasks();
+        List<Task> currentSubtasks = current.getSubtasks();
+        if (baseSubtasks.size() != currentSubtasks.size()) {
+            return true;
+        }
+        Set<String> ids = new HashSet<>();
+        for (Task subtask : baseSubtasks) {
+            ids.add(subtask.getId());
+        }
+        for (Task subtask : currentSubtasks) {
+            if (!ids.contains(subtask.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
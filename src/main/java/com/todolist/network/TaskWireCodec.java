@@ -0,0 +1,176 @@
+package com.todolist.network;
+
+import com.todolist.task.Task;
+import net.minecraft.network.PacketByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact task wire format (v2), used when both sides register TaskPackets.CODEC_V2_ID
+ *
+ * Per task:
+ * - varint flags: completed, team scope, which optional fields follow, and which id fields
+ *   are canonical UUIDs written as two longs instead of a 36 character string
+ * - id, title, description, byte priority, varlong createdAt
+ * - optional due date (varlong), creator, assignee, assignee name, project id, revision (varlong)
+ * - varint tag count + tags, varint subtask count + subtasks
+ *
+ * Lists are a varint count followed by the tasks.
+ */
+final class TaskWireCodec {
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_TEAM_SCOPE = 1 << 1;
+    private static final int FLAG_DUE_DATE = 1 << 2;
+    private static final int FLAG_CREATOR = 1 << 3;
+    private static final int FLAG_ASSIGNEE = 1 << 4;
+    private static final int FLAG_ASSIGNEE_NAME = 1 << 5;
+    private static final int FLAG_PROJECT = 1 << 6;
+    private static final int FLAG_ID_UUID = 1 << 7;
+    private static final int FLAG_CREATOR_UUID = 1 << 8;
+    private static final int FLAG_ASSIGNEE_UUID = 1 << 9;
+    private static final int FLAG_PROJECT_UUID = 1 << 10;
+    private static final int FLAG_REVISION = 1 << 11;
+
+    private TaskWireCodec() {}
+
+    static void writeTaskList(PacketByteBuf buf, List<Task> tasks) {
+        buf.writeVarInt(tasks.size());
+        for (Task task : tasks) {
+            writeTask(buf, task);
+        }
+    }
+
+    static List<Task> readTaskList(PacketByteBuf buf) {
+        int count = buf.readVarInt();
+        List<Task> tasks = new ArrayList<>(Math.min(count, buf.readableBytes()));
+        for (int i = 0; i < count; i++) {
+            tasks.add(readTask(buf));
+        }
+        return tasks;
+    }
+
+    static void writeTask(PacketByteBuf buf, Task task) {
+        String id = task.getId() != null ? task.getId() : "";
+        UUID idUuid = parseUuid(id);
+        UUID creatorUuid = parseUuid(task.getCreatorUuid());
+        UUID assigneeUuid = parseUuid(task.getAssigneeUuid());
+        UUID projectUuid = parseUuid(task.getProjectId());
+
+        int flags = 0;
+        if (task.isCompleted()) flags |= FLAG_COMPLETED;
+        if (task.getScope() == Task.Scope.TEAM) flags |= FLAG_TEAM_SCOPE;
+        if (task.getDueDate() != null) flags |= FLAG_DUE_DATE;
+        if (task.getCreatorUuid() != null) flags |= FLAG_CREATOR;
+        if (task.getAssigneeUuid() != null) flags |= FLAG_ASSIGNEE;
+        if (task.getAssigneeName() != null) flags |= FLAG_ASSIGNEE_NAME;
+        if (task.getProjectId() != null) flags |= FLAG_PROJECT;
+        if (idUuid != null) flags |= FLAG_ID_UUID;
+        if (creatorUuid != null) flags |= FLAG_CREATOR_UUID;
+        if (assigneeUuid != null) flags |= FLAG_ASSIGNEE_UUID;
+        if (projectUuid != null) flags |= FLAG_PROJECT_UUID;
+        if (task.getRevision() != 0) flags |= FLAG_REVISION;
+
+        buf.writeVarInt(flags);
+        writeId(buf, id, idUuid);
+        buf.writeString(task.getTitle() != null ? task.getTitle() : "");
+        buf.writeString(task.getDescription() != null ? task.getDescription() : "");
+        buf.writeByte((task.getPriority() != null ? task.getPriority() : Task.Priority.MEDIUM).ordinal());
+        buf.writeVarLong(task.getCreatedAt());
+        if (task.getDueDate() != null) buf.writeVarLong(task.getDueDate());
+        if (task.getCreatorUuid() != null) writeId(buf, task.getCreatorUuid(), creatorUuid);
+        if (task.getAssigneeUuid() != null) writeId(buf, task.getAssigneeUuid(), assigneeUuid);
+        if (task.getAssigneeName() != null) buf.writeString(task.getAssigneeName());
+        if (task.getProjectId() != null) writeId(buf, task.getProjectId(), projectUuid);
+        if (task.getRevision() != 0) buf.writeVarLong(task.getRevision());
+
+        int tagCount = 0;
+        for (String tag : task.getTags()) {
+            if (tag != null && !tag.isEmpty()) {
+                tagCount++;
+            }
+        }
+        buf.writeVarInt(tagCount);
+        for (String tag : task.getTags()) {
+            if (tag != null && !tag.isEmpty()) {
+                buf.writeString(tag);
+            }
+        }
+
+        List<Task> subtasks = task.getSubtasks();
+        int subtaskCount = 0;
+        for (Task subtask : subtasks) {
+            if (subtask != null) {
+                subtaskCount++;
+            }
+        }
+        buf.writeVarInt(subtaskCount);
+        for (Task subtask : subtasks) {
+            if (subtask != null) {
+                writeTask(buf, subtask);
+            }
+        }
+    }
+
+    static Task readTask(PacketByteBuf buf) {
+        int flags = buf.readVarInt();
+        String id = readId(buf, (flags & FLAG_ID_UUID) != 0);
+        String title = buf.readString();
+        String description = buf.readString();
+        Task task = new Task(title, description);
+        task.setId(id);
+
+        int priority = buf.readUnsignedByte();
+        Task.Priority[] priorities = Task.Priority.values();
+        task.setPriority(priority < priorities.length ? priorities[priority] : Task.Priority.MEDIUM);
+        task.setCompleted((flags & FLAG_COMPLETED) != 0);
+        task.setScope((flags & FLAG_TEAM_SCOPE) != 0 ? Task.Scope.TEAM : Task.Scope.PERSONAL);
+        // Carried for parity with v1, which does not apply it on receipt either
+        buf.readVarLong();
+        if ((flags & FLAG_DUE_DATE) != 0) task.setDueDate(buf.readVarLong());
+        if ((flags & FLAG_CREATOR) != 0) task.setCreatorUuid(readId(buf, (flags & FLAG_CREATOR_UUID) != 0));
+        if ((flags & FLAG_ASSIGNEE) != 0) task.setAssigneeUuid(readId(buf, (flags & FLAG_ASSIGNEE_UUID) != 0));
+        if ((flags & FLAG_ASSIGNEE_NAME) != 0) task.setAssigneeName(buf.readString());
+        if ((flags & FLAG_PROJECT) != 0) task.setProjectId(readId(buf, (flags & FLAG_PROJECT_UUID) != 0));
+        if ((flags & FLAG_REVISION) != 0) task.setRevision(buf.readVarLong());
+
+        int tagCount = buf.readVarInt();
+        for (int i = 0; i < tagCount; i++) {
+            task.addTag(buf.readString());
+        }
+
+        int subtaskCount = buf.readVarInt();
+        for (int i = 0; i < subtaskCount; i++) {
+            task.addSubtask(readTask(buf));
+        }
+        return task;
+    }
+
+    private static void writeId(PacketByteBuf buf, String value, UUID uuid) {
+        if (uuid != null) {
+            buf.writeUuid(uuid);
+        } else {
+            buf.writeString(value);
+        }
+    }
+
+    private static String readId(PacketByteBuf buf, boolean isUuid) {
+        return isUuid ? buf.readUuid().toString() : buf.readString();
+    }
+
+    /**
+     * Canonical UUID strings only, so the string read back is identical to the one written
+     */
+    private static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.todolist.network;
+
+import com.todolist.task.Task;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects task toggles during a tick and applies them at the end of it
+ *
+ * Toggles of the same task by the same player within one tick collapse into one: an even number
+ * cancels out, an odd number is one toggle. Each player's personal toggles end in a single
+ * save and sync, and all team toggles of the tick in a single save and broadcast.
+ * Server thread only.
+ */
+public final class ToggleCoalescer {
+    // Player -> task id -> number of toggles this tick, in arrival order
+    private static final Map<UUID, Map<String, Integer>> personal = new LinkedHashMap<>();
+    private static final Map<UUID, Map<String, Integer>> team = new LinkedHashMap<>();
+
+    private static final AtomicLong requestCount = new AtomicLong();
+    private static final AtomicLong appliedCount = new AtomicLong();
+
+    private ToggleCoalescer() {}
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(ToggleCoalescer::flush);
+    }
+
+    public static void requestPersonal(ServerPlayerEntity player, String taskId) {
+        add(personal, player, taskId);
+    }
+
+    public static void requestTeam(ServerPlayerEntity player, String taskId) {
+        add(team, player, taskId);
+    }
+
+    public static void clear() {
+        personal.clear();
+        team.clear();
+    }
+
+    public static long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public static long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    public static long getCoalescedCount() {
+        return requestCount.get() - appliedCount.get();
+    }
+
+    private static void add(Map<UUID, Map<String, Integer>> pending, ServerPlayerEntity player, String taskId) {
+        requestCount.incrementAndGet();
+        pending.computeIfAbsent(player.getUuid(), k -> new LinkedHashMap<>()).merge(taskId, 1, Integer::sum);
+    }
+
+    private static void flush(MinecraftServer server) {
+        if (!personal.isEmpty()) {
+            for (Map.Entry<UUID, Map<String, Integer>> entry : personal.entrySet()) {
+                ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+                List<String> taskIds = effectiveToggles(entry.getValue());
+                if (player != null && !taskIds.isEmpty()) {
+                    appliedCount.addAndGet(taskIds.size());
+                    TaskPackets.applyPersonalToggles(server, player, taskIds);
+                }
+            }
+            personal.clear();
+        }
+
+        if (!team.isEmpty()) {
+            List<Task> changed = new ArrayList<>();
+            for (Map.Entry<UUID, Map<String, Integer>> entry : team.entrySet()) {
+                ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+                if (player == null) {
+                    continue;
+                }
+                for (String taskId : effectiveToggles(entry.getValue())) {
+                    appliedCount.incrementAndGet();
+                    Task task = TaskPackets.applyTeamToggle(player, taskId);
+                    if (task != null && !changed.contains(task)) {
+                        changed.add(task);
+                    }
+                }
+            }
+            team.clear();
+            TaskPackets.commitTeamToggles(server, changed);
+        }
+    }
+
+    private static List<String> effectiveToggles(Map<String, Integer> toggles) {
+        List<String> taskIds = new ArrayList<>();
+        for (Map.Entry<String, Integer> toggle : toggles.entrySet()) {
+            if (toggle.getValue() % 2 != 0) {
+                taskIds.add(toggle.getKey());
+            }
+        }
+        return taskIds;
+    }
+}
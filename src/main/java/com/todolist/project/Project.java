@@ -183,6 +183,13 @@ public class Project {
         this.memberNames.put(uuid, name);
     }
 
+    /**
+     * Create a detached deep copy of this project (used for background persistence snapshots)
+     */
+    public Project copy() {
+        return fromNbt(toNbt());
+    }
+
     // NBT Serialization
 
     public NbtCompound toNbt() {
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Manages projects and provides CRUD operations
@@ -52,6 +53,19 @@ public class ProjectManager {
         return result;
     }
 
+    /**
+     * Get personal projects of one owner (null for the shared personal projects)
+     */
+    public List<Project> getPersonalProjects(String ownerUuid) {
+        List<Project> result = new ArrayList<>();
+        for (Project project : projects.values()) {
+            if (project.getScope() == Project.Scope.PERSONAL && Objects.equals(emptyToNull(project.getOwnerUuid()), emptyToNull(ownerUuid))) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
     /**
      * Update project
      */
@@ -72,6 +86,18 @@ public class ProjectManager {
         }
     }
 
+    /**
+     * Drop the personal projects of an owner from memory (they stay on disk)
+     */
+    public int unloadPersonalProjects(String ownerUuid) {
+        List<Project> owned = getPersonalProjects(ownerUuid);
+        for (Project project : owned) {
+            projects.remove(project.getId());
+            notifyListeners(ProjectChangeType.REMOVED, project);
+        }
+        return owned.size();
+    }
+
     /**
      * Clear all projects
      */
@@ -80,6 +106,10 @@ public class ProjectManager {
         notifyListeners(ProjectChangeType.CLEARED, null);
     }
 
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
     // Listener Management
 
     public void addListener(ProjectChangeListener listener) {
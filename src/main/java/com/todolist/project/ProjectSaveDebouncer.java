@@ -1,13 +1,24 @@
 package com.todolist.project;
 
 import com.todolist.TodoListMod;
+import com.todolist.storage.StorageExecutor;
 import net.minecraft.server.MinecraftServer;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Coalesces project save requests. Projects are copied on the server thread and written
+ * on the {@link StorageExecutor}, so a slow disk never stalls the tick.
+ */
 public final class ProjectSaveDebouncer {
     private static final long DEBOUNCE_MS = 750;
 
@@ -20,6 +31,8 @@ public final class ProjectSaveDebouncer {
     private static final Object LOCK = new Object();
     private static boolean dirtyPersonal = false;
     private static boolean dirtyTeam = false;
+    // Owners whose personal project file needs a write; "" is the shared projects.dat
+    private static final Set<String> dirtyOwners = new HashSet<>();
     private static ScheduledFuture<?> pending = null;
     private static MinecraftServer lastServer = null;
 
@@ -36,48 +49,120 @@ public final class ProjectSaveDebouncer {
             } else {
                 dirtyTeam = true;
             }
-            if (pending != null) {
-                pending.cancel(false);
-            }
-            pending = SCHEDULER.schedule(() -> {
-                MinecraftServer s;
-                synchronized (LOCK) {
-                    s = lastServer;
-                }
-                if (s != null) {
-                    s.execute(() -> flushNow(s));
-                }
-            }, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            schedule();
         }
     }
 
-    public static void flushNow(MinecraftServer server) {
+    /**
+     * Save the personal projects of one owner (null for the shared projects.dat)
+     */
+    public static void requestPersonalSave(MinecraftServer server, String ownerUuid) {
         if (server == null) {
             return;
         }
+        synchronized (LOCK) {
+            lastServer = server;
+            dirtyOwners.add(ownerUuid == null ? "" : ownerUuid);
+            schedule();
+        }
+    }
+
+    private static void schedule() {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = SCHEDULER.schedule(() -> {
+            MinecraftServer s;
+            synchronized (LOCK) {
+                s = lastServer;
+            }
+            if (s != null) {
+                s.execute(() -> flushNow(s));
+            }
+        }, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write every dirty project file. Returns false, leaving everything dirty for a retry after
+     * another debounce window, if the storage queue cannot take all the writes right now.
+     */
+    public static boolean flushNow(MinecraftServer server) {
+        if (server == null) {
+            return true;
+        }
 
         boolean doPersonal;
         boolean doTeam;
+        List<String> owners;
         synchronized (LOCK) {
+            int writes = (dirtyPersonal ? TodoListMod.getPlayerDataCache().getLoadedPlayers().size() + 1 : dirtyOwners.size())
+                    + (dirtyTeam ? 1 : 0);
+            if (!StorageExecutor.hasCapacity(writes)) {
+                lastServer = server;
+                schedule();
+                return false;
+            }
             doPersonal = dirtyPersonal;
             doTeam = dirtyTeam;
+            owners = new ArrayList<>(dirtyOwners);
             dirtyPersonal = false;
             dirtyTeam = false;
+            dirtyOwners.clear();
             pending = null;
         }
 
-        try {
-            ProjectManager manager = TodoListMod.getProjectManager();
-            ProjectStorage storage = TodoListMod.getProjectStorage();
-            if (doPersonal) {
-                storage.saveProjects(manager.getProjectsByScope(Project.Scope.PERSONAL));
+        ProjectManager manager = TodoListMod.getProjectManager();
+        if (doPersonal) {
+            // Shared file plus every owner currently in memory
+            owners.clear();
+            owners.add("");
+            for (UUID uuid : TodoListMod.getPlayerDataCache().getLoadedPlayers()) {
+                owners.add(uuid.toString());
+            }
+        }
+        for (String owner : owners) {
+            if (owner.isEmpty()) {
+                List<Project> snapshot = snapshot(manager.getPersonalProjects(null));
+                write(ProjectStorage.SHARED_IO_KEY, "shared", storage -> storage.saveProjects(snapshot));
+                continue;
             }
-            if (doTeam) {
-                storage.saveTeamProjects(manager.getProjectsByScope(Project.Scope.TEAM));
+            UUID uuid = UUID.fromString(owner);
+            if (!TodoListMod.getPlayerDataCache().isLoaded(uuid)) {
+                // Never overwrite a player's file with a partial in-memory view
+                TodoListMod.LOGGER.warn("Skipping personal project save for unloaded player {}", owner);
+                continue;
             }
-        } catch (Exception e) {
-            TodoListMod.LOGGER.error("Failed to save projects (debounced)", e);
+            List<Project> snapshot = snapshot(manager.getPersonalProjects(owner));
+            write(ProjectStorage.playerIoKey(uuid), owner, storage -> storage.savePlayerProjects(uuid, snapshot));
+        }
+        if (doTeam) {
+            List<Project> snapshot = snapshot(manager.getProjectsByScope(Project.Scope.TEAM));
+            write(ProjectStorage.TEAM_IO_KEY, "team", storage -> storage.saveTeamProjects(snapshot));
         }
+        return true;
     }
-}
 
+    private static List<Project> snapshot(List<Project> projects) {
+        List<Project> copies = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            copies.add(project.copy());
+        }
+        return copies;
+    }
+
+    private static void write(String key, String label, ProjectWrite write) {
+        StorageExecutor.submit(key, () -> {
+            try {
+                write.run(TodoListMod.getProjectStorage());
+            } catch (Exception e) {
+                TodoListMod.LOGGER.error("Failed to save projects (debounced, {})", label, e);
+            }
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ProjectWrite {
+        void run(ProjectStorage storage) throws IOException;
+    }
+}
@@ -1,11 +1,10 @@
 package com.todolist.project;
 
 import com.todolist.TodoListMod;
-import com.todolist.task.TaskStorage;
+import com.todolist.storage.AtomicFiles;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
-import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.NbtList;
 
 import java.io.IOException;
@@ -30,6 +29,10 @@ public class ProjectStorage {
     private static final String PLAYERS_FOLDER = "players";
     private static final String TEAM_PROJECTS_FILE = "team_projects.dat";
 
+    /** Storage executor keys, one per project file */
+    public static final String SHARED_IO_KEY = "projects/shared";
+    public static final String TEAM_IO_KEY = "projects/team";
+
     private final Path dataDir;
 
     public ProjectStorage() {
@@ -37,6 +40,13 @@ public class ProjectStorage {
         ensureDirectoryExists();
     }
 
+    /**
+     * Storage executor key for a player's personal project file
+     */
+    public static String playerIoKey(UUID playerUuid) {
+        return "projects/" + playerUuid;
+    }
+
     private Path getDataDirectory() {
         Path gameDir = FabricLoader.getInstance().getGameDir().toAbsolutePath();
         return gameDir.resolve(DATA_FOLDER);
@@ -80,7 +90,7 @@ public class ProjectStorage {
     public List<Project> loadProjects() throws IOException {
         Path projectsDir = dataDir.resolve(PROJECTS_FOLDER);
         Path dataFile = projectsDir.resolve(PROJECTS_FILE);
-        if (!Files.exists(dataFile)) {
+        if (!AtomicFiles.exists(dataFile)) {
             return new ArrayList<>();
         }
         return loadProjectsFromFile(dataFile);
@@ -104,7 +114,7 @@ public class ProjectStorage {
         Path projectsDir = dataDir.resolve(PROJECTS_FOLDER);
         Path playersDir = projectsDir.resolve(PLAYERS_FOLDER);
         Path playerFile = playersDir.resolve(playerUuid.toString() + ".dat");
-        if (!Files.exists(playerFile)) {
+        if (!AtomicFiles.exists(playerFile)) {
             return new ArrayList<>();
         }
         return loadProjectsFromFile(playerFile);
@@ -122,7 +132,7 @@ public class ProjectStorage {
     public List<Project> loadTeamProjects() throws IOException {
         Path projectsDir = dataDir.resolve(PROJECTS_FOLDER);
         Path teamFile = projectsDir.resolve(TEAM_PROJECTS_FILE);
-        if (!Files.exists(teamFile)) {
+        if (!AtomicFiles.exists(teamFile)) {
             return new ArrayList<>();
         }
         return loadProjectsFromFile(teamFile);
@@ -141,11 +151,11 @@ public class ProjectStorage {
         }
         root.put("projects", projectList);
 
-        NbtIo.write(root, file.toFile());
+        AtomicFiles.writeNbt(file, root);
     }
 
     private List<Project> loadProjectsFromFile(Path file) throws IOException {
-        NbtCompound root = NbtIo.read(file.toFile());
+        NbtCompound root = AtomicFiles.readNbt(file);
         if (root == null) {
             TodoListMod.LOGGER.warn("Failed to read project data from {}", file);
             return new ArrayList<>();
@@ -0,0 +1,186 @@
+package com.todolist.storage;
+
+import com.todolist.TodoListMod;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash-safe file replacement for the mod's data files
+ *
+ * Writes go to a temp sibling which is fsynced and then atomically moved over the live file.
+ * The previous live file is kept as a single rolling {@code .bak} generation, and reads fall back
+ * to it when the live file is missing or unreadable.
+ */
+public final class AtomicFiles {
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    // Striped so the lock table stays bounded however many player files come and go;
+    // unrelated files sharing a stripe only serialize their writes
+    private static final int LOCK_STRIPES = 64;
+    private static final Object[] LOCKS = new Object[LOCK_STRIPES];
+
+    static {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private AtomicFiles() {}
+
+    @FunctionalInterface
+    public interface StreamWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    /**
+     * Durably replace {@code file} with whatever {@code writer} produces
+     */
+    public static void write(Path file, StreamWriter writer) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path dir = target.getParent();
+        Path temp = sibling(target, TEMP_SUFFIX);
+        Path backup = sibling(target, BACKUP_SUFFIX);
+
+        synchronized (lockFor(target)) {
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile())) {
+                BufferedOutputStream out = new BufferedOutputStream(fos);
+                writer.write(out);
+                out.flush();
+                fos.getFD().sync();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+
+            // Keep the last good generation around until the new one is in place
+            if (Files.exists(target)) {
+                Files.move(target, backup, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(dir);
+        }
+    }
+
+    /**
+     * Read {@code file}, falling back to its backup generation if needed.
+     * Returns null when neither copy exists or both are unreadable.
+     */
+    public static <T> T read(Path file, StreamReader<T> reader) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path backup = sibling(target, BACKUP_SUFFIX);
+
+        synchronized (lockFor(target)) {
+            if (Files.exists(target)) {
+                try {
+                    T value = readFrom(target, reader);
+                    if (value != null) {
+                        return value;
+                    }
+                    TodoListMod.LOGGER.warn("Data file {} is empty, trying backup", target);
+                } catch (IOException | RuntimeException e) {
+                    TodoListMod.LOGGER.warn("Data file {} is corrupt, trying backup", target, e);
+                }
+            }
+
+            if (Files.exists(backup)) {
+                T value = readFrom(backup, reader);
+                if (value != null) {
+                    TodoListMod.LOGGER.warn("Recovered {} from backup {}", target, backup);
+                }
+                return value;
+            }
+            return null;
+        }
+    }
+
+    public static void writeNbt(Path file, NbtCompound root) throws IOException {
+        write(file, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            NbtIo.write(root, data);
+            data.flush();
+        });
+    }
+
+    public static NbtCompound readNbt(Path file) throws IOException {
+        return read(file, in -> NbtIo.read(new DataInputStream(in)));
+    }
+
+    /**
+     * Whether either the live file or its backup exists
+     */
+    public static boolean exists(Path file) {
+        Path target = file.toAbsolutePath();
+        return Files.exists(target) || Files.exists(sibling(target, BACKUP_SUFFIX));
+    }
+
+    /**
+     * Delete the live file together with its backup and any stale temp file
+     */
+    public static boolean delete(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        synchronized (lockFor(target)) {
+            boolean deleted = Files.deleteIfExists(target);
+            deleted |= Files.deleteIfExists(sibling(target, BACKUP_SUFFIX));
+            Files.deleteIfExists(sibling(target, TEMP_SUFFIX));
+            return deleted;
+        }
+    }
+
+    // --- Internal Helpers ---
+
+    private static <T> T readFrom(Path path, StreamReader<T> reader) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return reader.read(in);
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName().toString() + suffix);
+    }
+
+    private static Object lockFor(Path file) {
+        return LOCKS[Math.floorMod(file.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Persist the rename itself; not supported on every platform, so failures are ignored
+     */
+    private static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
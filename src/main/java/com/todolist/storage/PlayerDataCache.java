@@ -0,0 +1,226 @@
+package com.todolist.storage;
+
+import com.todolist.TodoListMod;
+import com.todolist.config.ModConfig;
+import com.todolist.project.Project;
+import com.todolist.project.ProjectManager;
+import com.todolist.project.ProjectSaveDebouncer;
+import com.todolist.project.ProjectStorage;
+import com.todolist.task.TaskSaveDebouncer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Server-side residency of per-player data (personal tasks and personal projects)
+ *
+ * A player's data is loaded on join (read on the storage executor, installed on the server
+ * thread) and flushed on disconnect. Offline players stay
+ * cached for a configurable idle time so quick reconnects are free, and the number of
+ * cached offline players is capped; beyond that the longest-offline players are evicted.
+ * Memory therefore follows the number of concurrent players instead of everyone who
+ * ever joined.
+ */
+public class PlayerDataCache {
+    private static final int SWEEP_INTERVAL_TICKS = 20 * 30;
+
+    private final Set<UUID> loaded = new HashSet<>();
+    private final Map<UUID, Long> offlineSince = new HashMap<>();
+    private final Map<UUID, CompletableFuture<Void>> loading = new HashMap<>();
+    // Handlers waiting for a player's data, run in arrival order once it is installed
+    private final Map<UUID, List<Runnable>> deferred = new HashMap<>();
+    private int ticksUntilSweep = SWEEP_INTERVAL_TICKS;
+
+    public void register() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            UUID playerUuid = handler.getPlayer().getUuid();
+            server.execute(() -> onJoin(server, playerUuid));
+        });
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID playerUuid = handler.getPlayer().getUuid();
+            server.execute(() -> onDisconnect(server, playerUuid));
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (--ticksUntilSweep <= 0) {
+                ticksUntilSweep = SWEEP_INTERVAL_TICKS;
+                sweep(server);
+            }
+        });
+    }
+
+    public boolean isLoaded(UUID playerUuid) {
+        return loaded.contains(playerUuid);
+    }
+
+    public Set<UUID> getLoadedPlayers() {
+        return new HashSet<>(loaded);
+    }
+
+    private void onJoin(MinecraftServer server, UUID playerUuid) {
+        offlineSince.remove(playerUuid);
+        ensureLoaded(server, playerUuid);
+    }
+
+    /**
+     * Run an action once a player's data is resident: right away if it already is, otherwise
+     * right after the load, ahead of anything waiting on the load future. Actions are dropped
+     * if the load fails. Server thread only.
+     */
+    public void runWhenLoaded(MinecraftServer server, UUID playerUuid, Runnable action) {
+        if (loaded.contains(playerUuid)) {
+            action.run();
+            return;
+        }
+        deferred.computeIfAbsent(playerUuid, k -> new ArrayList<>()).add(action);
+        ensureLoaded(server, playerUuid);
+    }
+
+    /**
+     * Start loading a player's data if it is not resident yet
+     * The future completes on the server thread once tasks and projects are installed.
+     */
+    public CompletableFuture<Void> ensureLoaded(MinecraftServer server, UUID playerUuid) {
+        if (loaded.contains(playerUuid)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = loading.get(playerUuid);
+        if (future != null) {
+            return future;
+        }
+
+        CompletableFuture<Throwable> tasks = TodoListMod.getTaskRepository().loadPlayerTasksAsync(playerUuid, server)
+                .handle((manager, error) -> {
+                    if (error != null) {
+                        TodoListMod.LOGGER.error("Failed to load tasks for player {}", playerUuid, error);
+                    }
+                    return error;
+                });
+        CompletableFuture<List<Project>> projects = StorageExecutor.submit(ProjectStorage.playerIoKey(playerUuid),
+                () -> TodoListMod.getProjectStorage().loadPlayerProjects(playerUuid));
+
+        future = tasks.thenCombine(projects.handle((list, error) -> error), (taskError, projectError) -> {
+                    if (projectError != null) {
+                        TodoListMod.LOGGER.error("Failed to load projects for player {}", playerUuid, projectError);
+                    }
+                    return taskError != null || projectError != null;
+                })
+                .thenAcceptAsync(failed -> {
+                    loading.remove(playerUuid);
+                    List<Runnable> actions = deferred.remove(playerUuid);
+                    if (failed) {
+                        // Stay unloaded so the failed read never gets overwritten by an empty save,
+                        // and drop a task list that did load so it is not stranded outside eviction
+                        TodoListMod.getTaskRepository().unloadPlayer(playerUuid);
+                        if (actions != null) {
+                            TodoListMod.LOGGER.warn("Dropped {} requests of player {} whose data failed to load", actions.size(), playerUuid);
+                        }
+                        return;
+                    }
+                    ProjectManager manager = TodoListMod.getProjectManager();
+                    for (Project project : projects.join()) {
+                        if (manager.getProject(project.getId()) == null) {
+                            manager.addProject(project);
+                        }
+                    }
+                    loaded.add(playerUuid);
+                    if (actions != null) {
+                        for (Runnable action : actions) {
+                            try {
+                                action.run();
+                            } catch (Exception e) {
+                                TodoListMod.LOGGER.error("Failed to run deferred request of player {}", playerUuid, e);
+                            }
+                        }
+                    }
+                }, server);
+        loading.put(playerUuid, future);
+        return future;
+    }
+
+    private void onDisconnect(MinecraftServer server, UUID playerUuid) {
+        if (!loaded.contains(playerUuid) && !loading.containsKey(playerUuid)) {
+            return;
+        }
+        offlineSince.put(playerUuid, System.currentTimeMillis());
+        TaskSaveDebouncer.flushPlayer(server, playerUuid);
+        ProjectSaveDebouncer.flushNow(server);
+    }
+
+    /**
+     * Evict offline players past the idle time, then the longest-offline ones above the cap
+     */
+    private void sweep(MinecraftServer server) {
+        if (offlineSince.isEmpty()) {
+            return;
+        }
+        ModConfig config = ModConfig.getInstance();
+        long idleMs = config.getPlayerCacheIdleMinutes() * 60_000L;
+        long now = System.currentTimeMillis();
+
+        List<UUID> evict = new ArrayList<>();
+        List<Map.Entry<UUID, Long>> remaining = new ArrayList<>();
+        for (Map.Entry<UUID, Long> entry : offlineSince.entrySet()) {
+            if (loading.containsKey(entry.getKey())) {
+                continue;
+            }
+            if (now - entry.getValue() >= idleMs) {
+                evict.add(entry.getKey());
+            } else {
+                remaining.add(entry);
+            }
+        }
+        int overCap = remaining.size() - config.getPlayerCacheMaxOffline();
+        if (overCap > 0) {
+            remaining.sort(Map.Entry.comparingByValue());
+            for (int i = 0; i < overCap; i++) {
+                evict.add(remaining.get(i).getKey());
+            }
+        }
+        if (evict.isEmpty()) {
+            return;
+        }
+
+        // Get every pending write for these players onto the save threads before dropping them;
+        // with the storage queue full they stay cached until a later sweep
+        if (!ProjectSaveDebouncer.flushNow(server)) {
+            return;
+        }
+        int evicted = 0;
+        for (UUID playerUuid : evict) {
+            if (unload(server, playerUuid)) {
+                evicted++;
+            }
+        }
+        TodoListMod.LOGGER.info("Evicted {} idle players from the data cache ({} still loaded)", evicted, loaded.size());
+    }
+
+    private boolean unload(MinecraftServer server, UUID playerUuid) {
+        if (!TaskSaveDebouncer.flushPlayer(server, playerUuid)) {
+            return false;
+        }
+        TodoListMod.getTaskRepository().unloadPlayer(playerUuid);
+        TodoListMod.getProjectManager().unloadPersonalProjects(playerUuid.toString());
+        loaded.remove(playerUuid);
+        offlineSince.remove(playerUuid);
+        return true;
+    }
+
+    /**
+     * Forget every cached player (server stopped; saves were already flushed)
+     */
+    public void clear() {
+        loaded.clear();
+        loading.clear();
+        deferred.clear();
+        offlineSince.clear();
+    }
+}
@@ -0,0 +1,216 @@
+package com.todolist.storage;
+
+import com.todolist.TodoListMod;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executor for all storage reads and writes
+ *
+ * Work is submitted under a key (usually one per file); jobs with the same key run strictly
+ * in submission order, jobs with different keys run in parallel on a small pool. The number
+ * of queued jobs is bounded, so a stalled disk applies back-pressure instead of growing the
+ * heap: submitting never blocks, a full queue rejects the job and writers check
+ * {@link #hasCapacity} first so their dirty state is kept and retried. Queue depth and
+ * end-to-end latency (queue wait + I/O) are tracked for diagnostics.
+ */
+public final class StorageExecutor {
+    private static final int THREADS = 2;
+    private static final int MAX_PENDING = 4096;
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread t = new Thread(r, "todolist-storage-io-" + THREAD_COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Semaphore CAPACITY = new Semaphore(MAX_PENDING);
+
+    private static final Object LOCK = new Object();
+    // Keys that have a job running or queued; the deque holds the jobs not yet started
+    private static final Map<String, ArrayDeque<Runnable>> queues = new HashMap<>();
+    private static int pending = 0;
+    private static long completed = 0;
+    private static long failed = 0;
+    private static long rejected = 0;
+    private static final long[] latenciesMicros = new long[LATENCY_SAMPLES];
+    private static int latencyCount = 0;
+    private static int latencyIndex = 0;
+
+    private StorageExecutor() {}
+
+    @FunctionalInterface
+    public interface IoTask<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Queue an I/O job behind every earlier job with the same key. Never blocks: if
+     * {@value #MAX_PENDING} jobs are already waiting the future fails with a
+     * RejectedExecutionException.
+     */
+    public static <T> CompletableFuture<T> submit(String key, IoTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!CAPACITY.tryAcquire()) {
+            synchronized (LOCK) {
+                rejected++;
+            }
+            future.completeExceptionally(new RejectedExecutionException("Storage queue full, " + MAX_PENDING + " jobs pending"));
+            return future;
+        }
+
+        long enqueuedAt = System.nanoTime();
+        Runnable job = () -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                synchronized (LOCK) {
+                    failed++;
+                }
+                future.completeExceptionally(t);
+            } finally {
+                recordLatency((System.nanoTime() - enqueuedAt) / 1000);
+            }
+        };
+
+        boolean start;
+        synchronized (LOCK) {
+            pending++;
+            ArrayDeque<Runnable> queue = queues.get(key);
+            start = queue == null;
+            if (start) {
+                queue = new ArrayDeque<>();
+                queues.put(key, queue);
+            }
+            queue.add(job);
+        }
+        if (start) {
+            POOL.execute(() -> runNext(key));
+        }
+        return future;
+    }
+
+    /**
+     * Whether at least {@code jobs} more jobs can be queued right now
+     */
+    public static boolean hasCapacity(int jobs) {
+        return CAPACITY.availablePermits() >= jobs;
+    }
+
+    public static boolean hasCapacity() {
+        return hasCapacity(1);
+    }
+
+    /**
+     * Run one job of a key, then hand the key back to the pool so other keys get a turn
+     */
+    private static void runNext(String key) {
+        Runnable job;
+        synchronized (LOCK) {
+            job = queues.get(key).poll();
+        }
+        job.run();
+
+        boolean more;
+        synchronized (LOCK) {
+            pending--;
+            completed++;
+            ArrayDeque<Runnable> queue = queues.get(key);
+            more = !queue.isEmpty();
+            if (!more) {
+                queues.remove(key);
+            }
+            LOCK.notifyAll();
+        }
+        CAPACITY.release();
+        if (more) {
+            POOL.execute(() -> runNext(key));
+        }
+    }
+
+    /**
+     * Wait until every queued job has finished (server stopping)
+     */
+    public static boolean awaitIdle(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (LOCK) {
+            while (pending > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    TodoListMod.LOGGER.warn("Timed out waiting for {} storage jobs", pending);
+                    return false;
+                }
+                try {
+                    LOCK.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void recordLatency(long micros) {
+        synchronized (LOCK) {
+            latenciesMicros[latencyIndex] = micros;
+            latencyIndex = (latencyIndex + 1) % LATENCY_SAMPLES;
+            if (latencyCount < LATENCY_SAMPLES) {
+                latencyCount++;
+            }
+        }
+    }
+
+    // Statistics
+
+    public static int getQueueDepth() {
+        synchronized (LOCK) {
+            return pending;
+        }
+    }
+
+    public static long getCompletedCount() {
+        synchronized (LOCK) {
+            return completed;
+        }
+    }
+
+    public static long getFailedCount() {
+        synchronized (LOCK) {
+            return failed;
+        }
+    }
+
+    public static long getRejectedCount() {
+        synchronized (LOCK) {
+            return rejected;
+        }
+    }
+
+    /**
+     * Latency percentile (0-100) over the most recent jobs, in milliseconds
+     */
+    public static double getLatencyPercentileMillis(double percentile) {
+        long[] samples;
+        synchronized (LOCK) {
+            samples = Arrays.copyOf(latenciesMicros, latencyCount);
+        }
+        if (samples.length == 0) {
+            return 0.0;
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile / 100.0 * samples.length) - 1;
+        index = Math.max(0, Math.min(samples.length - 1, index));
+        return samples[index] / 1000.0;
+    }
+}
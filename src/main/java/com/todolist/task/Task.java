@@ -33,6 +33,11 @@ public class Task {
     private String assigneeUuid;
     private String assigneeName;
     private String projectId; // New field for project association
+    // Bumped by the server on every applied change; base for conflict checks on patches
+    private long revision;
+
+    // Manager whose secondary indexes must follow changes to indexed fields
+    TaskManager owner;
 
     public Task(String title, String description) {
         this.id = UUID.randomUUID().toString();
@@ -60,6 +65,9 @@ public class Task {
         nbt.putBoolean("completed", completed);
         nbt.putString("priority", priority.name());
         nbt.putLong("createdAt", createdAt);
+        if (revision != 0) {
+            nbt.putLong("rev", revision);
+        }
 
         // Tags
         NbtList tagsList = new NbtList();
@@ -116,6 +124,7 @@ public class Task {
         task.priority = Priority.valueOf(priorityStr);
 
         task.createdAt = nbt.getLong("createdAt");
+        task.revision = nbt.getLong("rev");
 
         // Tags
         if (nbt.contains("tags", NbtElement.LIST_TYPE)) {
@@ -164,17 +173,46 @@ public class Task {
         return task;
     }
 
+    /**
+     * Create a detached deep copy of this task (used for background persistence snapshots)
+     */
+    public Task copy() {
+        Task copy = new Task(title, description);
+        copy.id = id;
+        copy.completed = completed;
+        copy.priority = priority;
+        copy.tags.addAll(tags);
+        copy.createdAt = createdAt;
+        copy.dueDate = dueDate;
+        for (Task subtask : subtasks) {
+            copy.subtasks.add(subtask.copy());
+        }
+        copy.scope = scope;
+        copy.creatorUuid = creatorUuid;
+        copy.assigneeUuid = assigneeUuid;
+        copy.assigneeName = assigneeName;
+        copy.projectId = projectId;
+        copy.revision = revision;
+        return copy;
+    }
+
     // Getters and Setters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) {
+        // Managers index tasks by id
+        if (owner != null) {
+            throw new IllegalStateException("Cannot change the id of task " + this.id + " while a manager holds it");
+        }
+        this.id = id;
+    }
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public boolean isCompleted() { return completed; }
-    public void setCompleted(boolean completed) { this.completed = completed; }
+    public void setCompleted(boolean completed) { this.completed = completed; reindex(); }
     public Priority getPriority() { return priority; }
-    public void setPriority(Priority priority) { this.priority = priority; }
+    public void setPriority(Priority priority) { this.priority = priority; reindex(); }
     public Set<String> getTags() { return new HashSet<>(tags); }
     public void setTags(Iterable<String> tags) {
         this.tags.clear();
@@ -183,11 +221,13 @@ public class Task {
                 this.tags.add(tag);
             }
         }
+        reindex();
     }
-    public void clearTags() { this.tags.clear(); }
-    public void addTag(String tag) { this.tags.add(tag); }
-    public void removeTag(String tag) { this.tags.remove(tag); }
+    public void clearTags() { this.tags.clear(); reindex(); }
+    public void addTag(String tag) { this.tags.add(tag); reindex(); }
+    public void removeTag(String tag) { this.tags.remove(tag); reindex(); }
     public long getCreatedAt() { return createdAt; }
+    void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
     public Long getDueDate() { return dueDate; }
     public void setDueDate(Long dueDate) { this.dueDate = dueDate; }
     public List<Task> getSubtasks() { return new ArrayList<>(subtasks); }
@@ -198,11 +238,19 @@ public class Task {
     public String getCreatorUuid() { return creatorUuid; }
     public void setCreatorUuid(String creatorUuid) { this.creatorUuid = creatorUuid; }
     public String getAssigneeUuid() { return assigneeUuid; }
-    public void setAssigneeUuid(String assigneeUuid) { this.assigneeUuid = assigneeUuid; }
+    public void setAssigneeUuid(String assigneeUuid) { this.assigneeUuid = assigneeUuid; reindex(); }
     public String getAssigneeName() { return assigneeName; }
     public void setAssigneeName(String assigneeName) { this.assigneeName = assigneeName; }
     public String getProjectId() { return projectId; }
-    public void setProjectId(String projectId) { this.projectId = projectId; }
+    public void setProjectId(String projectId) { this.projectId = projectId; reindex(); }
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
+    private void reindex() {
+        if (owner != null) {
+            owner.reindex(this);
+        }
+    }
 
     /**
      * Priority levels for tasks
@@ -0,0 +1,291 @@
+package com.todolist.task;
+
+import net.minecraft.nbt.NbtCompound;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compact binary task file format (version 2)
+ *
+ * Layout:
+ * - magic "TDL2", varint version, long lastSaved
+ * - string table: varint count, then per entry a kind byte followed by either two longs (UUID)
+ *   or a varint-length UTF-8 string
+ * - varint task count, then each task with ids, UUIDs, names, project ids and tags written as
+ *   varint indexes into the table; the revision is only written when set (flag bit 7), so files
+ *   from before revisions existed read as revision 0
+ *
+ * The table is written before the tasks, so files can still be read one task at a time.
+ */
+final class TaskBinaryCodec {
+    static final int MAGIC = 0x54444C32; // "TDL2"
+    static final int VERSION = 2;
+
+    private static final byte KIND_STRING = 0;
+    private static final byte KIND_UUID = 1;
+
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_DUE_DATE = 1 << 1;
+    private static final int FLAG_CREATOR = 1 << 2;
+    private static final int FLAG_ASSIGNEE = 1 << 3;
+    private static final int FLAG_ASSIGNEE_NAME = 1 << 4;
+    private static final int FLAG_PROJECT = 1 << 5;
+    private static final int FLAG_TEAM_SCOPE = 1 << 6;
+    private static final int FLAG_REVISION = 1 << 7;
+
+    private static final int MAX_STRING_BYTES = 1 << 20;
+
+    private TaskBinaryCodec() {}
+
+    // --- Writing ---
+
+    static void write(OutputStream stream, List<Task> tasks) throws IOException {
+        StringTable table = new StringTable();
+        for (Task task : tasks) {
+            table.collect(task);
+        }
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        writeVarInt(out, VERSION);
+        out.writeLong(System.currentTimeMillis());
+
+        writeVarInt(out, table.entries.size());
+        for (String entry : table.entries) {
+            UUID uuid = parseUuid(entry);
+            if (uuid != null) {
+                out.writeByte(KIND_UUID);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else {
+                out.writeByte(KIND_STRING);
+                writeString(out, entry);
+            }
+        }
+
+        writeVarInt(out, tasks.size());
+        for (Task task : tasks) {
+            writeTask(out, task, table);
+        }
+        out.flush();
+    }
+
+    private static void writeTask(DataOutputStream out, Task task, StringTable table) throws IOException {
+        int flags = 0;
+        if (task.isCompleted()) flags |= FLAG_COMPLETED;
+        if (task.getDueDate() != null) flags |= FLAG_DUE_DATE;
+        if (task.getCreatorUuid() != null) flags |= FLAG_CREATOR;
+        if (task.getAssigneeUuid() != null) flags |= FLAG_ASSIGNEE;
+        if (task.getAssigneeName() != null) flags |= FLAG_ASSIGNEE_NAME;
+        if (task.getProjectId() != null) flags |= FLAG_PROJECT;
+        if (task.getScope() == Task.Scope.TEAM) flags |= FLAG_TEAM_SCOPE;
+        if (task.getRevision() != 0) flags |= FLAG_REVISION;
+
+        writeVarInt(out, table.indexOf(task.getId()));
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        out.writeByte(flags);
+        out.writeByte(task.getPriority().ordinal());
+        out.writeLong(task.getCreatedAt());
+        if (task.getDueDate() != null) out.writeLong(task.getDueDate());
+        if (task.getCreatorUuid() != null) writeVarInt(out, table.indexOf(task.getCreatorUuid()));
+        if (task.getAssigneeUuid() != null) writeVarInt(out, table.indexOf(task.getAssigneeUuid()));
+        if (task.getAssigneeName() != null) writeVarInt(out, table.indexOf(task.getAssigneeName()));
+        if (task.getProjectId() != null) writeVarInt(out, table.indexOf(task.getProjectId()));
+        if (task.getRevision() != 0) out.writeLong(task.getRevision());
+
+        Set<String> tags = task.getTags();
+        writeVarInt(out, tags.size());
+        for (String tag : tags) {
+            writeVarInt(out, table.indexOf(tag));
+        }
+
+        List<Task> subtasks = task.getSubtasks();
+        writeVarInt(out, subtasks.size());
+        for (Task subtask : subtasks) {
+            writeTask(out, subtask, table);
+        }
+    }
+
+    // --- Reading ---
+
+    /**
+     * Read a v2 file whose magic has already been consumed
+     *
+     * @return header with lastSaved and version
+     */
+    static NbtCompound read(InputStream stream, TaskStorage.TaskVisitor visitor, Set<String> seen) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        int version = readVarInt(in);
+        if (version != VERSION) {
+            throw new IOException("Unsupported task file version " + version);
+        }
+        NbtCompound header = new NbtCompound();
+        header.putInt("version", version);
+        header.putLong("lastSaved", in.readLong());
+
+        int tableSize = readVarInt(in);
+        String[] table = new String[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            byte kind = in.readByte();
+            if (kind == KIND_UUID) {
+                table[i] = new UUID(in.readLong(), in.readLong()).toString();
+            } else {
+                table[i] = readString(in);
+            }
+        }
+
+        int count = readVarInt(in);
+        for (int i = 0; i < count; i++) {
+            Task task = readTask(in, table);
+            if (!seen.add(task.getId())) {
+                continue;
+            }
+            if (!visitor.visit(task)) {
+                break;
+            }
+        }
+        return header;
+    }
+
+    private static Task readTask(DataInputStream in, String[] table) throws IOException {
+        String id = lookup(table, readVarInt(in));
+        String title = readString(in);
+        String description = readString(in);
+        Task task = new Task(title, description);
+        task.setId(id);
+
+        int flags = in.readUnsignedByte();
+        int priority = in.readUnsignedByte();
+        Task.Priority[] priorities = Task.Priority.values();
+        task.setPriority(priority < priorities.length ? priorities[priority] : Task.Priority.MEDIUM);
+        task.setCompleted((flags & FLAG_COMPLETED) != 0);
+        task.setScope((flags & FLAG_TEAM_SCOPE) != 0 ? Task.Scope.TEAM : Task.Scope.PERSONAL);
+        task.setCreatedAt(in.readLong());
+        if ((flags & FLAG_DUE_DATE) != 0) task.setDueDate(in.readLong());
+        if ((flags & FLAG_CREATOR) != 0) task.setCreatorUuid(lookup(table, readVarInt(in)));
+        if ((flags & FLAG_ASSIGNEE) != 0) task.setAssigneeUuid(lookup(table, readVarInt(in)));
+        if ((flags & FLAG_ASSIGNEE_NAME) != 0) task.setAssigneeName(lookup(table, readVarInt(in)));
+        if ((flags & FLAG_PROJECT) != 0) task.setProjectId(lookup(table, readVarInt(in)));
+        if ((flags & FLAG_REVISION) != 0) task.setRevision(in.readLong());
+
+        int tagCount = readVarInt(in);
+        for (int i = 0; i < tagCount; i++) {
+            task.addTag(lookup(table, readVarInt(in)));
+        }
+
+        int subtaskCount = readVarInt(in);
+        for (int i = 0; i < subtaskCount; i++) {
+            task.addSubtask(readTask(in, table));
+        }
+        return task;
+    }
+
+    // --- Helpers ---
+
+    /**
+     * Canonical UUID strings are stored as two longs; anything else stays a string
+     */
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String lookup(String[] table, int index) throws IOException {
+        if (index < 0 || index >= table.length) {
+            throw new IOException("String table index out of range: " + index);
+        }
+        return table[index];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    /**
+     * Interned strings of one file in first-seen order
+     */
+    private static final class StringTable {
+        private final List<String> entries = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        void collect(Task task) {
+            add(task.getId());
+            add(task.getCreatorUuid());
+            add(task.getAssigneeUuid());
+            add(task.getAssigneeName());
+            add(task.getProjectId());
+            for (String tag : task.getTags()) {
+                add(tag);
+            }
+            for (Task subtask : task.getSubtasks()) {
+                collect(subtask);
+            }
+        }
+
+        private void add(String value) {
+            if (value != null && !indexes.containsKey(value)) {
+                indexes.put(value, entries.size());
+                entries.add(value);
+            }
+        }
+
+        int indexOf(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                throw new IllegalStateException("String not interned: " + value);
+            }
+            return index;
+        }
+    }
+}
@@ -8,11 +8,24 @@ import java.util.stream.Collectors;
  * Manages task lists and provides CRUD operations
  *
  * Thread-safe task management for both client and server side
+ *
+ * Keeps secondary indexes on completion, priority, project, assignee and tag so the
+ * filtered getters cost O(result) instead of a scan and sort. Tasks report changes to
+ * indexed fields back to the manager that holds them, so direct setter calls stay indexed.
  */
 public class TaskManager {
     private final Map<String, Task> tasks;
     private final List<TaskChangeListener> listeners;
 
+    // Secondary indexes; every bucket is ordered by insertion sequence
+    private final Map<String, IndexEntry> entries = new HashMap<>();
+    private final PriorityBuckets completedIndex = new PriorityBuckets();
+    private final PriorityBuckets incompleteIndex = new PriorityBuckets();
+    private final Map<String, PriorityBuckets> projectIndex = new HashMap<>();
+    private final Map<String, PriorityBuckets> assigneeIndex = new HashMap<>();
+    private final Map<String, TreeSet<IndexEntry>> tagIndex = new HashMap<>();
+    private long nextSequence = 0;
+
     public TaskManager() {
         this.tasks = new LinkedHashMap<>();
         this.listeners = new ArrayList<>();
@@ -25,17 +38,16 @@ public class TaskManager {
      */
     public Task addTask(String title, String description) {
         Task task = new Task(title, description);
-        tasks.put(task.getId(), task);
+        put(task);
         notifyListeners(TaskChangeType.ADDED, task);
         return task;
     }
 
     /**
-     * Add an existing task
+     * Add an existing task. A task held by another manager is added as a copy.
      */
     public void addTask(Task task) {
-        tasks.put(task.getId(), task);
-        notifyListeners(TaskChangeType.ADDED, task);
+        notifyListeners(TaskChangeType.ADDED, put(task));
     }
 
     /**
@@ -51,13 +63,19 @@ public class TaskManager {
         return list;
     }
 
+    /**
+     * Get all tasks in insertion order (no sorting)
+     */
+    public List<Task> getTasksInOrder() {
+        return new ArrayList<>(tasks.values());
+    }
+
     /**
      * Update task
      */
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
-            tasks.put(task.getId(), task);
-            notifyListeners(TaskChangeType.UPDATED, task);
+            notifyListeners(TaskChangeType.UPDATED, put(task));
         }
     }
 
@@ -67,6 +85,8 @@ public class TaskManager {
     public void deleteTask(String taskId) {
         Task removed = tasks.remove(taskId);
         if (removed != null) {
+            unindex(taskId);
+            release(removed);
             notifyListeners(TaskChangeType.REMOVED, removed);
         }
     }
@@ -88,34 +108,23 @@ public class TaskManager {
      * Get completed tasks
      */
     public List<Task> getCompletedTasks() {
-        return tasks.values().stream()
-                .filter(Task::isCompleted)
-                .sorted((a, b) -> b.getPriority().ordinal() - a.getPriority().ordinal())
-                .collect(Collectors.toList());
+        return completedIndex.collect(new ArrayList<>());
     }
 
     /**
      * Get incomplete tasks
      */
     public List<Task> getIncompleteTasks() {
-        return tasks.values().stream()
-                .filter(t -> !t.isCompleted())
-                .sorted((a, b) -> b.getPriority().ordinal() - a.getPriority().ordinal())
-                .collect(Collectors.toList());
+        return incompleteIndex.collect(new ArrayList<>());
     }
 
     /**
      * Get tasks by priority
      */
     public List<Task> getTasksByPriority(Task.Priority priority) {
-        List<Task> list = tasks.values().stream()
-                .filter(t -> t.getPriority() == priority)
-                .collect(Collectors.toList());
-        list.sort((a, b) -> {
-            if (a.isCompleted() && !b.isCompleted()) return 1;
-            if (!a.isCompleted() && b.isCompleted()) return -1;
-            return 0;
-        });
+        List<Task> list = new ArrayList<>();
+        incompleteIndex.collect(priority, list);
+        completedIndex.collect(priority, list);
         return list;
     }
 
@@ -123,19 +132,58 @@ public class TaskManager {
      * Get tasks by project ID
      */
     public List<Task> getTasksByProject(String projectId) {
-        return tasks.values().stream()
-                .filter(t -> Objects.equals(t.getProjectId(), projectId))
-                .sorted((a, b) -> b.getPriority().ordinal() - a.getPriority().ordinal())
-                .collect(Collectors.toList());
+        PriorityBuckets buckets = projectIndex.get(projectId);
+        return buckets == null ? new ArrayList<>() : buckets.collect(new ArrayList<>());
+    }
+
+    /**
+     * Get tasks of a project, optionally only one completion state and / or one priority
+     * (null means any); walks only the project's tasks, or only its bucket for that priority
+     */
+    public List<Task> getTasksByProject(String projectId, Boolean completed, Task.Priority priority) {
+        List<Task> list = new ArrayList<>();
+        PriorityBuckets buckets = projectIndex.get(projectId);
+        if (buckets == null) {
+            return list;
+        }
+        if (priority != null) {
+            buckets.collect(priority, completed, list);
+            return list;
+        }
+        Task.Priority[] priorities = Task.Priority.values();
+        for (int i = priorities.length - 1; i >= 0; i--) {
+            buckets.collect(priorities[i], completed, list);
+        }
+        return list;
+    }
+
+    /**
+     * Get tasks assigned to a player (null or empty for unassigned tasks)
+     */
+    public List<Task> getTasksByAssignee(String assigneeUuid) {
+        PriorityBuckets buckets = assigneeIndex.get(normalizeAssignee(assigneeUuid));
+        return buckets == null ? new ArrayList<>() : buckets.collect(new ArrayList<>());
+    }
+
+    /**
+     * Get tasks without an assignee
+     */
+    public List<Task> getUnassignedTasks() {
+        return getTasksByAssignee(null);
     }
 
     /**
      * Get tasks with specific tag
      */
     public List<Task> getTasksByTag(String tag) {
-        return tasks.values().stream()
-                .filter(t -> t.getTags().contains(tag))
-                .collect(Collectors.toList());
+        TreeSet<IndexEntry> bucket = tagIndex.get(tag);
+        List<Task> list = new ArrayList<>();
+        if (bucket != null) {
+            for (IndexEntry entry : bucket) {
+                list.add(entry.task);
+            }
+        }
+        return list;
     }
 
     /**
@@ -171,9 +219,7 @@ public class TaskManager {
      * Get completed task count
      */
     public int getCompletedCount() {
-        return (int) tasks.values().stream()
-                .filter(Task::isCompleted)
-                .count();
+        return completedIndex.size();
     }
 
     /**
@@ -190,7 +236,7 @@ public class TaskManager {
      */
     public void addTasks(List<Task> newTasks) {
         for (Task task : newTasks) {
-            tasks.put(task.getId(), task);
+            put(task);
         }
         notifyListeners(TaskChangeType.BATCH_UPDATED, null);
     }
@@ -199,7 +245,16 @@ public class TaskManager {
      * Clear all tasks
      */
     public void clearAll() {
+        for (Task task : tasks.values()) {
+            release(task);
+        }
         tasks.clear();
+        entries.clear();
+        completedIndex.clear();
+        incompleteIndex.clear();
+        projectIndex.clear();
+        assigneeIndex.clear();
+        tagIndex.clear();
         notifyListeners(TaskChangeType.CLEARED, null);
     }
 
@@ -219,6 +274,90 @@ public class TaskManager {
         notifyListeners(TaskChangeType.BATCH_UPDATED, null);
     }
 
+    // Index Maintenance
+
+    /**
+     * Store a task, replacing any task with the same id while keeping its position.
+     * A task can only report changes to one manager, so one held by another manager is
+     * stored as a copy; returns the stored task.
+     */
+    private Task put(Task task) {
+        if (task.owner != null && task.owner != this) {
+            task = task.copy();
+        }
+        Task previous = tasks.put(task.getId(), task);
+        IndexEntry old = unindex(task.getId());
+        if (previous != null && previous != task) {
+            release(previous);
+        }
+        task.owner = this;
+        index(task, old != null ? old.sequence : nextSequence++);
+        return task;
+    }
+
+    /**
+     * Called by a task after one of its indexed fields changed
+     */
+    void reindex(Task task) {
+        IndexEntry old = entries.get(task.getId());
+        if (old == null || old.task != task || old.matches(task)) {
+            return;
+        }
+        unindex(task.getId());
+        index(task, old.sequence);
+    }
+
+    private void release(Task task) {
+        if (task.owner == this) {
+            task.owner = null;
+        }
+    }
+
+    private void index(Task task, long sequence) {
+        IndexEntry entry = new IndexEntry(task, sequence);
+        entries.put(task.getId(), entry);
+        (entry.completed ? completedIndex : incompleteIndex).add(entry);
+        projectIndex.computeIfAbsent(entry.projectId, k -> new PriorityBuckets()).add(entry);
+        assigneeIndex.computeIfAbsent(entry.assigneeUuid, k -> new PriorityBuckets()).add(entry);
+        for (String tag : entry.tags) {
+            tagIndex.computeIfAbsent(tag, k -> new TreeSet<>()).add(entry);
+        }
+    }
+
+    private IndexEntry unindex(String taskId) {
+        IndexEntry entry = entries.remove(taskId);
+        if (entry == null) {
+            return null;
+        }
+        (entry.completed ? completedIndex : incompleteIndex).remove(entry);
+        removeFrom(projectIndex, entry.projectId, entry);
+        removeFrom(assigneeIndex, entry.assigneeUuid, entry);
+        for (String tag : entry.tags) {
+            TreeSet<IndexEntry> bucket = tagIndex.get(tag);
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    tagIndex.remove(tag);
+                }
+            }
+        }
+        return entry;
+    }
+
+    private static void removeFrom(Map<String, PriorityBuckets> index, String key, IndexEntry entry) {
+        PriorityBuckets buckets = index.get(key);
+        if (buckets != null) {
+            buckets.remove(entry);
+            if (buckets.size() == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static String normalizeAssignee(String assigneeUuid) {
+        return assigneeUuid == null || assigneeUuid.isEmpty() ? null : assigneeUuid;
+    }
+
     // Listener Management
 
     public void addListener(TaskChangeListener listener) {
@@ -248,4 +387,95 @@ public class TaskManager {
     public interface TaskChangeListener {
         void onTaskChanged(TaskChangeType type, Task task);
     }
+
+    /**
+     * Index keys of a task as of its last (re)index, so the old buckets can still be found
+     * after a setter changed the task
+     */
+    private static final class IndexEntry implements Comparable<IndexEntry> {
+        final Task task;
+        final long sequence;
+        final boolean completed;
+        final Task.Priority priority;
+        final String projectId;
+        final String assigneeUuid;
+        final Set<String> tags;
+
+        IndexEntry(Task task, long sequence) {
+            this.task = task;
+            this.sequence = sequence;
+            this.completed = task.isCompleted();
+            this.priority = task.getPriority();
+            this.projectId = task.getProjectId();
+            this.assigneeUuid = normalizeAssignee(task.getAssigneeUuid());
+            this.tags = task.getTags();
+        }
+
+        boolean matches(Task task) {
+            return completed == task.isCompleted()
+                    && priority == task.getPriority()
+                    && Objects.equals(projectId, task.getProjectId())
+                    && Objects.equals(assigneeUuid, normalizeAssignee(task.getAssigneeUuid()))
+                    && tags.equals(task.getTags());
+        }
+
+        @Override
+        public int compareTo(IndexEntry other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * One insertion-ordered set per priority; iterating from the highest priority down gives
+     * the same order as a stable sort by descending priority
+     */
+    private static final class PriorityBuckets {
+        private final Map<Task.Priority, TreeSet<IndexEntry>> buckets = new EnumMap<>(Task.Priority.class);
+        private int size = 0;
+
+        void add(IndexEntry entry) {
+            if (buckets.computeIfAbsent(entry.priority, k -> new TreeSet<>()).add(entry)) {
+                size++;
+            }
+        }
+
+        void remove(IndexEntry entry) {
+            TreeSet<IndexEntry> bucket = buckets.get(entry.priority);
+            if (bucket != null && bucket.remove(entry)) {
+                size--;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            buckets.clear();
+            size = 0;
+        }
+
+        List<Task> collect(List<Task> out) {
+            Task.Priority[] priorities = Task.Priority.values();
+            for (int i = priorities.length - 1; i >= 0; i--) {
+                collect(priorities[i], out);
+            }
+            return out;
+        }
+
+        void collect(Task.Priority priority, List<Task> out) {
+            collect(priority, null, out);
+        }
+
+        void collect(Task.Priority priority, Boolean completed, List<Task> out) {
+            TreeSet<IndexEntry> bucket = buckets.get(priority);
+            if (bucket != null) {
+                for (IndexEntry entry : bucket) {
+                    if (completed == null || entry.completed == completed) {
+                        out.add(entry.task);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,283 @@
+package com.todolist.task;
+
+import com.todolist.storage.StorageExecutor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Server-side resident task store
+ *
+ * Personal task lists are loaded once per player (on join) and the team list once
+ * per server start. Packet handlers mutate the in-memory managers on the server
+ * thread; persistence goes through {@link TaskSaveDebouncer}, which writes detached
+ * snapshots in the background. Team changes are also tracked per task id so they
+ * can be appended to the team journal, and per project shard so a snapshot only
+ * rewrites the shards that changed.
+ */
+public class TaskRepository {
+    private final TaskStorage storage;
+    private final Map<UUID, TaskManager> playerTasks = new HashMap<>();
+    private TaskManager teamTasks;
+
+    // Team changes not yet written to the journal
+    private final Set<String> dirtyTeamIds = new LinkedHashSet<>();
+    private boolean teamSnapshotRequired = false;
+
+    // Team shards changed since the last snapshot, and the project each task was last stored in
+    private final Set<String> dirtyTeamShards = new LinkedHashSet<>();
+    private final Map<String, String> teamProjectOf = new HashMap<>();
+    private boolean teamFullRewrite = false;
+
+    // Project each moved team task was in before the moves not yet broadcast
+    private final Map<String, String> teamMovedFrom = new HashMap<>();
+
+    public TaskRepository(TaskStorage storage) {
+        this.storage = storage;
+    }
+
+    // --- Personal Tasks ---
+
+    /**
+     * Get the resident task list of a player. Lists are only ever loaded by
+     * {@link #loadPlayerTasksAsync}, never on the calling thread, so a player that is not
+     * resident is an error.
+     */
+    public TaskManager getPlayerTasks(UUID playerUuid) throws IOException {
+        TaskManager manager = playerTasks.get(playerUuid);
+        if (manager == null) {
+            throw new IOException("Tasks of player " + playerUuid + " are not loaded");
+        }
+        return manager;
+    }
+
+    /**
+     * Load a player's task list on the storage executor and install it on {@code serverThread}.
+     * Ordered behind any pending write of the same file, so a quick rejoin never reads stale data.
+     */
+    public CompletableFuture<TaskManager> loadPlayerTasksAsync(UUID playerUuid, Executor serverThread) {
+        TaskManager manager = playerTasks.get(playerUuid);
+        if (manager != null) {
+            return CompletableFuture.completedFuture(manager);
+        }
+        return StorageExecutor.submit(TaskStorage.playerIoKey(playerUuid), () -> storage.loadPlayerTasks(playerUuid))
+                .thenApplyAsync(tasks -> playerTasks.computeIfAbsent(playerUuid, uuid -> {
+                    // Only install if an earlier load has not already
+                    TaskManager loaded = new TaskManager();
+                    loaded.addTasks(tasks);
+                    return loaded;
+                }), serverThread);
+    }
+
+    public boolean isPlayerLoaded(UUID playerUuid) {
+        return playerTasks.containsKey(playerUuid);
+    }
+
+    /**
+     * Drop a player's resident list (flush pending saves first)
+     */
+    public void unloadPlayer(UUID playerUuid) {
+        playerTasks.remove(playerUuid);
+    }
+
+    /**
+     * Detached copy of a player's resident tasks, or null if not loaded
+     */
+    public List<Task> snapshotPlayer(UUID playerUuid) {
+        TaskManager manager = playerTasks.get(playerUuid);
+        return manager == null ? null : snapshot(manager);
+    }
+
+    // --- Team Tasks ---
+
+    /**
+     * Get the resident team task list, loading it from disk on first access
+     */
+    public TaskManager getTeamTasks() throws IOException {
+        if (teamTasks == null) {
+            TaskManager manager = new TaskManager();
+            manager.addTasks(storage.loadTeamTasks());
+            manager.addListener(this::onTeamTaskChanged);
+            teamTasks = manager;
+            rebuildTeamShardIndex();
+        }
+        return teamTasks;
+    }
+
+    /**
+     * Detached copies of the team shards changed since the last snapshot, keyed by shard.
+     * A dirty shard with no tasks left maps to an empty list. Returns null if not loaded.
+     */
+    public Map<String, List<Task>> snapshotTeamShards() {
+        if (teamTasks == null) {
+            return null;
+        }
+        boolean full = teamFullRewrite;
+        if (full) {
+            rebuildTeamShardIndex();
+        }
+
+        Map<String, List<Task>> shards = new LinkedHashMap<>();
+        for (String key : dirtyTeamShards) {
+            shards.put(key, new ArrayList<>());
+        }
+        for (Task task : teamTasks.getTasksInOrder()) {
+            String key = TaskStorage.teamShardKey(task.getProjectId());
+            if (full) {
+                shards.computeIfAbsent(key, k -> new ArrayList<>()).add(task.copy());
+            } else {
+                List<Task> shard = shards.get(key);
+                if (shard != null) {
+                    shard.add(task.copy());
+                }
+            }
+        }
+
+        dirtyTeamIds.clear();
+        dirtyTeamShards.clear();
+        teamSnapshotRequired = false;
+        teamFullRewrite = false;
+        return shards;
+    }
+
+    /**
+     * Whether pending team changes must be persisted by a snapshot rather than the journal
+     */
+    public boolean isTeamSnapshotRequired() {
+        return teamSnapshotRequired;
+    }
+
+    /**
+     * Whether the next team snapshot has to rewrite every shard (bulk replace or clear)
+     */
+    public boolean isTeamFullRewrite() {
+        return teamFullRewrite;
+    }
+
+    /**
+     * Delete every team task of a project and make the next save drop its shard
+     */
+    public int removeTeamProjectTasks(String projectId) throws IOException {
+        TaskManager manager = getTeamTasks();
+        List<Task> removed = manager.getTasksByProject(projectId);
+        for (Task task : removed) {
+            manager.deleteTask(task.getId());
+        }
+        dirtyTeamShards.add(TaskStorage.teamShardKey(projectId));
+        teamSnapshotRequired = true;
+        return removed.size();
+    }
+
+    /**
+     * Take the team tasks changed since the last drain or snapshot.
+     * Values are detached copies; a null value means the task was deleted.
+     */
+    public Map<String, Task> drainTeamChanges() {
+        Map<String, Task> changes = new LinkedHashMap<>();
+        if (teamTasks == null) {
+            return changes;
+        }
+        for (String id : dirtyTeamIds) {
+            Task task = teamTasks.getTask(id);
+            changes.put(id, task == null ? null : task.copy());
+        }
+        dirtyTeamIds.clear();
+        return changes;
+    }
+
+    /**
+     * Mark team changes dirty again after their write failed, so the next save persists them
+     * as a snapshot.
+     */
+    public void restoreTeamChanges(Collection<String> ids, Collection<String> shards, boolean fullRewrite) {
+        dirtyTeamIds.addAll(ids);
+        dirtyTeamShards.addAll(shards);
+        // A failed append may have left a torn frame at the end of the journal: compact instead of appending past it
+        teamSnapshotRequired = true;
+        if (fullRewrite) {
+            teamFullRewrite = true;
+        }
+    }
+
+    private void onTeamTaskChanged(TaskManager.TaskChangeType type, Task task) {
+        if (type == TaskManager.TaskChangeType.BATCH_UPDATED || type == TaskManager.TaskChangeType.CLEARED) {
+            teamSnapshotRequired = true;
+            teamFullRewrite = true;
+            return;
+        }
+        if (task == null) {
+            return;
+        }
+        dirtyTeamIds.add(task.getId());
+
+        String projectId = projectKey(task);
+        String previous = type == TaskManager.TaskChangeType.REMOVED
+                ? teamProjectOf.remove(task.getId())
+                : teamProjectOf.put(task.getId(), projectId);
+        dirtyTeamShards.add(TaskStorage.teamShardKey(projectId));
+        if (previous != null) {
+            // Task moved to another project, or was removed
+            dirtyTeamShards.add(TaskStorage.teamShardKey(previous));
+            if (type != TaskManager.TaskChangeType.REMOVED && !previous.equals(projectId)) {
+                teamMovedFrom.putIfAbsent(task.getId(), previous);
+            }
+        }
+    }
+
+    /**
+     * Take the project each team task moved since the last call was in before, so its players
+     * learn that it left. An empty project id means no project.
+     */
+    public Map<String, String> drainTeamMoves() {
+        Map<String, String> moves = new HashMap<>(teamMovedFrom);
+        teamMovedFrom.clear();
+        return moves;
+    }
+
+    private void rebuildTeamShardIndex() {
+        teamProjectOf.clear();
+        for (Task task : teamTasks.getTasksInOrder()) {
+            teamProjectOf.put(task.getId(), projectKey(task));
+        }
+    }
+
+    private static String projectKey(Task task) {
+        return task.getProjectId() == null ? "" : task.getProjectId();
+    }
+
+    // --- Lifecycle ---
+
+    /**
+     * Drop every resident list (call after pending saves were flushed)
+     */
+    public void clear() {
+        playerTasks.clear();
+        teamTasks = null;
+        dirtyTeamIds.clear();
+        teamSnapshotRequired = false;
+        dirtyTeamShards.clear();
+        teamProjectOf.clear();
+        teamFullRewrite = false;
+        teamMovedFrom.clear();
+    }
+
+    // --- Internal Helpers ---
+
+    private static List<Task> snapshot(TaskManager manager) {
+        List<Task> snapshot = new ArrayList<>(manager.getTaskCount());
+        for (Task task : manager.getTasksInOrder()) {
+            snapshot.add(task.copy());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,292 @@
+package com.todolist.task;
+
+import com.todolist.TodoListMod;
+import com.todolist.config.ModConfig;
+import com.todolist.storage.StorageExecutor;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind flusher for task files, keyed per file (one key per player UUID plus the team file).
+ *
+ * A burst of save requests for the same file within the debounce window results in a single
+ * disk write. Snapshots are taken on the server thread; serialization and the write itself run
+ * on the {@link StorageExecutor}, ordered per file. With the team journal enabled, team saves
+ * append only the changed tasks and fall back to a full snapshot (compaction) once the journal
+ * grows too large.
+ */
+public final class TaskSaveDebouncer {
+    private static final long DEBOUNCE_MS = 750;
+    private static final long MAX_DELAY_MS = 5000;
+    private static final String TEAM_KEY = "team";
+
+    // Timers only; the writes themselves go through the storage executor
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "todolist-task-save");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Object LOCK = new Object();
+    private static final Map<String, ScheduledFuture<?>> pending = new HashMap<>();
+    private static final Map<String, Long> firstRequestAt = new HashMap<>();
+    private static MinecraftServer lastServer = null;
+
+    private static final AtomicLong requestCount = new AtomicLong();
+    private static final AtomicLong writeCount = new AtomicLong();
+
+    private TaskSaveDebouncer() {}
+
+    public static void requestPlayerSave(MinecraftServer server, UUID playerUuid) {
+        if (playerUuid == null) {
+            return;
+        }
+        requestSave(server, playerUuid.toString());
+    }
+
+    public static void requestTeamSave(MinecraftServer server) {
+        requestSave(server, TEAM_KEY);
+    }
+
+    private static void requestSave(MinecraftServer server, String key) {
+        if (server == null) {
+            return;
+        }
+        requestCount.incrementAndGet();
+        synchronized (LOCK) {
+            lastServer = server;
+            long now = System.currentTimeMillis();
+            Long first = firstRequestAt.get(key);
+            ScheduledFuture<?> existing = pending.get(key);
+            if (existing != null) {
+                // Keep the scheduled write if this file has already been waiting too long
+                if (first != null && now - first >= MAX_DELAY_MS) {
+                    return;
+                }
+                existing.cancel(false);
+            } else {
+                firstRequestAt.put(key, now);
+            }
+            pending.put(key, scheduleFlush(key));
+        }
+    }
+
+    private static ScheduledFuture<?> scheduleFlush(String key) {
+        return SCHEDULER.schedule(() -> {
+            MinecraftServer s;
+            synchronized (LOCK) {
+                s = lastServer;
+            }
+            if (s != null) {
+                s.execute(() -> flushKey(key));
+            }
+        }, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hand a player's pending save to the storage executor right away (disconnect / eviction).
+     * Returns false if the save is still pending because the storage queue is full.
+     */
+    public static boolean flushPlayer(MinecraftServer server, UUID playerUuid) {
+        if (server == null || playerUuid == null) {
+            return true;
+        }
+        String key = playerUuid.toString();
+        synchronized (LOCK) {
+            ScheduledFuture<?> future = pending.get(key);
+            if (future == null) {
+                return true;
+            }
+            future.cancel(false);
+        }
+        return flushKey(key);
+    }
+
+    /**
+     * Write every pending file now and wait for completion (server stopping)
+     */
+    public static void flushNow(MinecraftServer server) {
+        if (server == null) {
+            return;
+        }
+
+        List<String> keys;
+        synchronized (LOCK) {
+            keys = new ArrayList<>(pending.keySet());
+            for (ScheduledFuture<?> future : pending.values()) {
+                future.cancel(false);
+            }
+        }
+        for (String key : keys) {
+            if (!StorageExecutor.hasCapacity()) {
+                StorageExecutor.awaitIdle(30_000);
+            }
+            if (!flushKey(key)) {
+                TodoListMod.LOGGER.warn("Could not save task file {}, storage queue still full", key);
+            }
+        }
+
+        StorageExecutor.awaitIdle(30_000);
+
+        TodoListMod.LOGGER.info("Task saves: {} requests, {} writes ({} coalesced)",
+                getRequestCount(), getWriteCount(), getCoalescedCount());
+    }
+
+    /**
+     * Snapshot one file's tasks on the server thread and hand it to the storage executor.
+     * With the storage queue full the file stays dirty and is retried after another debounce
+     * window, absorbing any requests made meanwhile; returns false in that case.
+     */
+    private static boolean flushKey(String key) {
+        MinecraftServer server;
+        synchronized (LOCK) {
+            if (!StorageExecutor.hasCapacity()) {
+                pending.put(key, scheduleFlush(key));
+                return false;
+            }
+            pending.remove(key);
+            firstRequestAt.remove(key);
+            server = lastServer;
+        }
+
+        TaskRepository repository = TodoListMod.getTaskRepository();
+        if (TEAM_KEY.equals(key)) {
+            flushTeam(server, repository);
+            return true;
+        }
+
+        UUID playerUuid = UUID.fromString(key);
+        List<Task> snapshot = repository.snapshotPlayer(playerUuid);
+        if (snapshot == null) {
+            return true;
+        }
+        writePlayer(server, playerUuid, snapshot);
+        return true;
+    }
+
+    private static void writePlayer(MinecraftServer server, UUID playerUuid, List<Task> snapshot) {
+        StorageExecutor.submit(TaskStorage.playerIoKey(playerUuid), () -> {
+            try {
+                TodoListMod.getTaskStorage().savePlayerTasks(playerUuid, snapshot);
+                writeCount.incrementAndGet();
+                TodoListMod.LOGGER.debug("Flushed task file {} ({} coalesced so far)", playerUuid, getCoalescedCount());
+            } catch (Exception e) {
+                TodoListMod.LOGGER.error("Failed to save tasks (debounced, {})", playerUuid, e);
+                retryPlayer(server, playerUuid, snapshot);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * A player file failed to write: save it again from memory, or, if the player was evicted
+     * meanwhile, write the failed snapshot again after a debounce window
+     */
+    private static void retryPlayer(MinecraftServer server, UUID playerUuid, List<Task> snapshot) {
+        if (server == null) {
+            return;
+        }
+        server.execute(() -> {
+            if (TodoListMod.getTaskRepository().isPlayerLoaded(playerUuid)) {
+                requestPlayerSave(server, playerUuid);
+                return;
+            }
+            SCHEDULER.schedule(() -> server.execute(() -> {
+                if (StorageExecutor.hasCapacity()) {
+                    writePlayer(server, playerUuid, snapshot);
+                } else {
+                    retryPlayer(server, playerUuid, snapshot);
+                }
+            }), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * A team write failed: mark its changes dirty again on the server thread and save again
+     */
+    private static void retryTeam(MinecraftServer server, Runnable restore) {
+        if (server == null) {
+            return;
+        }
+        server.execute(() -> {
+            restore.run();
+            requestTeamSave(server);
+        });
+    }
+
+    /**
+     * Append team changes to the journal, or compact them into the dirty shards
+     */
+    private static void flushTeam(MinecraftServer server, TaskRepository repository) {
+        if (canAppendTeamJournal(repository)) {
+            Map<String, Task> changes = repository.drainTeamChanges();
+            if (changes.isEmpty()) {
+                return;
+            }
+            StorageExecutor.submit(TaskStorage.TEAM_IO_KEY, () -> {
+                try {
+                    TodoListMod.getTaskStorage().appendTeamJournal(changes);
+                    writeCount.incrementAndGet();
+                } catch (Exception e) {
+                    TodoListMod.LOGGER.error("Failed to append team task journal", e);
+                    retryTeam(server, () -> repository.restoreTeamChanges(changes.keySet(), Collections.emptyList(), false));
+                }
+                return null;
+            });
+            return;
+        }
+
+        boolean full = repository.isTeamFullRewrite();
+        Map<String, List<Task>> shards = repository.snapshotTeamShards();
+        if (shards == null) {
+            return;
+        }
+        StorageExecutor.submit(TaskStorage.TEAM_IO_KEY, () -> {
+            try {
+                TodoListMod.getTaskStorage().saveTeamShards(shards, full);
+                writeCount.incrementAndGet();
+            } catch (Exception e) {
+                TodoListMod.LOGGER.error("Failed to save team task shards", e);
+                retryTeam(server, () -> repository.restoreTeamChanges(Collections.emptyList(), shards.keySet(), full));
+            }
+            return null;
+        });
+    }
+
+    private static boolean canAppendTeamJournal(TaskRepository repository) {
+        ModConfig config = ModConfig.getInstance();
+        if (!config.isTeamJournalEnabled() || repository.isTeamSnapshotRequired()) {
+            return false;
+        }
+        long threshold = config.getTeamJournalCompactKb() * 1024L;
+        return TodoListMod.getTaskStorage().getTeamJournalSize() < threshold;
+    }
+
+    // Statistics
+
+    public static long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public static long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Number of save requests absorbed by an already pending write
+     */
+    public static long getCoalescedCount() {
+        return Math.max(0, requestCount.get() - writeCount.get());
+    }
+}
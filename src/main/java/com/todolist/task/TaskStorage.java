@@ -1,35 +1,80 @@
 package com.todolist.task;
 
 import com.todolist.TodoListMod;
+import com.todolist.config.ModConfig;
+import com.todolist.storage.AtomicFiles;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.nbt.NbtCompound;
-import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.NbtList;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /**
  * Handles task data persistence
  *
  * Storage structure:
+ * Task files are written as NBT v1 or, if the taskFileFormat config option opts in, compact
+ * binary v2 (see {@link TaskBinaryCodec}); both are always readable. v1 stays the default
+ * because older mod versions cannot read v2, so a downgrade would lose the tasks.
+ *
  * - Single player: saves/worldname/todo/moddata.dat
  * - Multiplayer: world/todo/players/{uuid}.dat
+ * - Team: world/todo/team/{projectId}.dat (one shard per project, _none.dat for tasks without one)
+ *         world/todo/team/index.dat (snapshot generation)
+ *         world/todo/team/tasks.journal (changes since the last snapshot)
+ *
+ * Journal records are framed as [length][crc32][uncompressed NBT] and tagged with the
+ * generation of the snapshot they apply to, so records left over from before a
+ * compaction are ignored on replay. The legacy single-file team_tasks.dat is split
+ * into shards on first load and renamed to team_tasks.dat.migrated.
  */
 public class TaskStorage {
     private static final String DATA_FOLDER = "todo";
     private static final String DATA_FILE = "moddata.dat";
     private static final String PLAYERS_FOLDER = "players";
-    private static final String TEAM_FILE = "team_tasks.dat";
+    private static final String LEGACY_TEAM_FILE = "team_tasks.dat";
+    private static final String LEGACY_TEAM_JOURNAL_FILE = "team_tasks.journal";
+    private static final String TEAM_FOLDER = "team";
+    private static final String TEAM_INDEX_FILE = "index.dat";
+    private static final String TEAM_JOURNAL_FILE = "tasks.journal";
+    private static final String SHARD_SUFFIX = ".dat";
+    private static final String NO_PROJECT_SHARD = "_none";
+    private static final int MAX_JOURNAL_RECORD_BYTES = 1 << 20;
+
+    /** Storage executor key shared by every team file (shards, index and journal) */
+    public static final String TEAM_IO_KEY = "tasks/team";
 
     private final Path dataDir;
 
+    // Guards the team shards, snapshot generation and the journal file
+    private final Object teamLock = new Object();
+    private long teamGeneration = 0;
+    private volatile long teamJournalBytes = 0;
+
     public TaskStorage() {
         this.dataDir = getDataDirectory();
         ensureDirectoryExists();
@@ -71,6 +116,11 @@ public class TaskStorage {
                 Files.createDirectories(playersDir);
                 TodoListMod.LOGGER.info("Created players directory: {}", playersDir);
             }
+
+            Path teamDir = dataDir.resolve(TEAM_FOLDER);
+            if (!Files.exists(teamDir)) {
+                Files.createDirectories(teamDir);
+            }
         } catch (IOException e) {
             TodoListMod.LOGGER.error("Failed to create data directory", e);
         }
@@ -95,16 +145,134 @@ public class TaskStorage {
         TodoListMod.LOGGER.info("Saved {} tasks for player {}", tasks.size(), playerUuid);
     }
 
+    /**
+     * Storage executor key for a player's task file
+     */
+    public static String playerIoKey(UUID playerUuid) {
+        return "tasks/" + playerUuid;
+    }
+
+    /**
+     * Shard key (file name without extension) for a team task's project
+     */
+    public static String teamShardKey(String projectId) {
+        if (projectId == null || projectId.isEmpty()) {
+            return NO_PROJECT_SHARD;
+        }
+        return projectId.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    /**
+     * Rewrite every team shard from the given list
+     */
     public void saveTeamTasks(List<Task> tasks) throws IOException {
-        Path teamFile = dataDir.resolve(TEAM_FILE);
-        saveTasksToFile(tasks, teamFile);
-        TodoListMod.LOGGER.info("Saved {} team tasks to {}", tasks.size(), teamFile);
+        saveTeamShards(groupByShard(tasks), true);
+        TodoListMod.LOGGER.info("Saved {} team tasks", tasks.size());
     }
 
     /**
-     * Save tasks to a specific file
+     * Write the given team shards and start a fresh journal generation.
+     * An empty list deletes the shard; with {@code full} set, shards not in the map are deleted too.
+     */
+    public void saveTeamShards(Map<String, List<Task>> shards, boolean full) throws IOException {
+        Path teamDir = dataDir.resolve(TEAM_FOLDER);
+        synchronized (teamLock) {
+            long generation = teamGeneration + 1;
+            for (Map.Entry<String, List<Task>> entry : shards.entrySet()) {
+                Path shardFile = teamDir.resolve(entry.getKey() + SHARD_SUFFIX);
+                if (entry.getValue().isEmpty()) {
+                    AtomicFiles.delete(shardFile);
+                } else {
+                    saveTasksToFile(entry.getValue(), shardFile);
+                }
+            }
+            if (full) {
+                for (Path shardFile : listTeamShards()) {
+                    String name = shardFile.getFileName().toString();
+                    String key = name.substring(0, name.length() - SHARD_SUFFIX.length());
+                    if (!shards.containsKey(key)) {
+                        AtomicFiles.delete(shardFile);
+                    }
+                }
+            }
+
+            NbtCompound index = new NbtCompound();
+            index.putLong("lastSaved", System.currentTimeMillis());
+            index.putInt("version", 1);
+            index.putLong("generation", generation);
+            AtomicFiles.writeNbt(teamDir.resolve(TEAM_INDEX_FILE), index);
+            teamGeneration = generation;
+
+            // The shards now cover everything the journal held
+            Files.deleteIfExists(teamDir.resolve(TEAM_JOURNAL_FILE));
+            teamJournalBytes = 0;
+        }
+        TodoListMod.LOGGER.info("Saved {} team task shards (generation {})", shards.size(), teamGeneration);
+    }
+
+    /**
+     * Append team task changes to the journal. A null task means the id was deleted.
+     */
+    public void appendTeamJournal(Map<String, Task> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Path journalFile = dataDir.resolve(TEAM_FOLDER).resolve(TEAM_JOURNAL_FILE);
+        synchronized (teamLock) {
+            ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(frames);
+            for (Map.Entry<String, Task> entry : changes.entrySet()) {
+                NbtCompound record = new NbtCompound();
+                record.putLong("gen", teamGeneration);
+                if (entry.getValue() != null) {
+                    record.putString("op", "put");
+                    record.put("task", entry.getValue().toNbt());
+                } else {
+                    record.putString("op", "del");
+                    record.putString("id", entry.getKey());
+                }
+
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                NbtIo.write(record, new DataOutputStream(body));
+                byte[] data = body.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                out.writeInt(data.length);
+                out.writeInt((int) crc.getValue());
+                out.write(data);
+            }
+            out.flush();
+
+            try (FileOutputStream fos = new FileOutputStream(journalFile.toFile(), true)) {
+                frames.writeTo(fos);
+                fos.flush();
+                fos.getFD().sync();
+            }
+            teamJournalBytes += frames.size();
+        }
+        TodoListMod.LOGGER.debug("Appended {} team task changes to {} ({} bytes)", changes.size(), journalFile, teamJournalBytes);
+    }
+
+    /**
+     * Current size of the team journal in bytes
+     */
+    public long getTeamJournalSize() {
+        return teamJournalBytes;
+    }
+
+    /**
+     * Save tasks to a specific file, in the format selected by the config
      */
     private void saveTasksToFile(List<Task> tasks, Path file) throws IOException {
+        // Write to a temp file and swap it in atomically
+        if (ModConfig.getInstance().getTaskFileFormat() >= TaskBinaryCodec.VERSION) {
+            AtomicFiles.write(file, out -> TaskBinaryCodec.write(out, tasks));
+        } else {
+            AtomicFiles.writeNbt(file, toRoot(tasks));
+        }
+    }
+
+    private NbtCompound toRoot(List<Task> tasks) {
         NbtCompound root = new NbtCompound();
         root.putLong("lastSaved", System.currentTimeMillis());
         root.putInt("version", 1);
@@ -114,9 +282,7 @@ public class TaskStorage {
             taskList.add(task.toNbt());
         }
         root.put("tasks", taskList);
-
-        // Write to file
-        NbtIo.write(root, file.toFile());
+        return root;
     }
 
     /**
@@ -124,7 +290,7 @@ public class TaskStorage {
      */
     public List<Task> loadTasks() throws IOException {
         Path dataFile = dataDir.resolve(DATA_FILE);
-        if (!Files.exists(dataFile)) {
+        if (!AtomicFiles.exists(dataFile)) {
             TodoListMod.LOGGER.info("No existing task data found, starting fresh");
             return new ArrayList<>();
         }
@@ -137,61 +303,253 @@ public class TaskStorage {
     public List<Task> loadPlayerTasks(UUID playerUuid) throws IOException {
         Path playersDir = dataDir.resolve(PLAYERS_FOLDER);
         Path playerFile = playersDir.resolve(playerUuid.toString() + ".dat");
-        if (!Files.exists(playerFile)) {
+        if (!AtomicFiles.exists(playerFile)) {
             TodoListMod.LOGGER.info("No existing task data for player {}", playerUuid);
             return new ArrayList<>();
         }
         return loadTasksFromFile(playerFile);
     }
 
+    /**
+     * Load only the tasks of a player that match the filter
+     */
+    public List<Task> loadPlayerTasks(UUID playerUuid, Predicate<Task> filter) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        visitPlayerTasks(playerUuid, task -> {
+            if (filter.test(task)) {
+                tasks.add(task);
+            }
+            return true;
+        });
+        return tasks;
+    }
+
+    /**
+     * Stream a player's tasks from disk one at a time; the visitor returns false to stop early
+     */
+    public void visitPlayerTasks(UUID playerUuid, TaskVisitor visitor) throws IOException {
+        Path playerFile = dataDir.resolve(PLAYERS_FOLDER).resolve(playerUuid.toString() + ".dat");
+        if (AtomicFiles.exists(playerFile)) {
+            streamTasksFromFile(playerFile, visitor);
+        }
+    }
+
+    /**
+     * Stream local (single player) tasks from disk one at a time; the visitor returns false to stop early
+     */
+    public void visitTasks(TaskVisitor visitor) throws IOException {
+        Path dataFile = dataDir.resolve(DATA_FILE);
+        if (AtomicFiles.exists(dataFile)) {
+            streamTasksFromFile(dataFile, visitor);
+        }
+    }
+
+    /**
+     * Stream the stored team tasks of one project (its shard only, without the journal)
+     */
+    public void visitTeamProjectTasks(String projectId, TaskVisitor visitor) throws IOException {
+        Path shardFile = dataDir.resolve(TEAM_FOLDER).resolve(teamShardKey(projectId) + SHARD_SUFFIX);
+        synchronized (teamLock) {
+            if (AtomicFiles.exists(shardFile)) {
+                streamTasksFromFile(shardFile, visitor);
+            }
+        }
+    }
+
+    /**
+     * Load every team shard and replay the journal on top of them
+     */
     public List<Task> loadTeamTasks() throws IOException {
-        Path teamFile = dataDir.resolve(TEAM_FILE);
-        if (!Files.exists(teamFile)) {
-            TodoListMod.LOGGER.info("No existing team task data");
-            return new ArrayList<>();
+        Path teamDir = dataDir.resolve(TEAM_FOLDER);
+        synchronized (teamLock) {
+            if (AtomicFiles.exists(dataDir.resolve(LEGACY_TEAM_FILE))) {
+                return migrateLegacyTeamFile();
+            }
+
+            long generation = 0;
+            Path indexFile = teamDir.resolve(TEAM_INDEX_FILE);
+            if (AtomicFiles.exists(indexFile)) {
+                NbtCompound index = AtomicFiles.readNbt(indexFile);
+                if (index != null) {
+                    generation = index.getLong("generation");
+                }
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            List<Path> shardFiles = listTeamShards();
+            for (Path shardFile : shardFiles) {
+                tasks.addAll(loadTasksFromFile(shardFile));
+            }
+            if (shardFiles.isEmpty()) {
+                TodoListMod.LOGGER.info("No existing team task data");
+            }
+
+            teamGeneration = generation;
+            Path journalFile = teamDir.resolve(TEAM_JOURNAL_FILE);
+            List<Task> replayed = replayTeamJournal(journalFile, tasks);
+            teamJournalBytes = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+            return replayed;
         }
-        return loadTasksFromFile(teamFile);
     }
 
     /**
-     * Load tasks from a specific file
+     * Split the legacy team_tasks.dat (plus its journal) into per-project shards
      */
-    private List<Task> loadTasksFromFile(Path file) throws IOException {
-        NbtCompound root = NbtIo.read(file.toFile());
-        if (root == null) {
-            TodoListMod.LOGGER.warn("Failed to read task data from {}", file);
+    private List<Task> migrateLegacyTeamFile() throws IOException {
+        Path legacyFile = dataDir.resolve(LEGACY_TEAM_FILE);
+        Path legacyJournal = dataDir.resolve(LEGACY_TEAM_JOURNAL_FILE);
+
+        List<Task> tasks = new ArrayList<>();
+        NbtCompound header = streamTasksFromFile(legacyFile, task -> {
+            tasks.add(task);
+            return true;
+        });
+        teamGeneration = header != null ? header.getLong("generation") : 0;
+        List<Task> migrated = replayTeamJournal(legacyJournal, tasks);
+
+        saveTeamShards(groupByShard(migrated), true);
+
+        if (Files.exists(legacyFile)) {
+            Files.move(legacyFile, legacyFile.resolveSibling(LEGACY_TEAM_FILE + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        AtomicFiles.delete(legacyFile);
+        Files.deleteIfExists(legacyJournal);
+        TodoListMod.LOGGER.info("Migrated {} team tasks from {} into per-project shards", migrated.size(), LEGACY_TEAM_FILE);
+        return migrated;
+    }
+
+    private List<Path> listTeamShards() throws IOException {
+        Path teamDir = dataDir.resolve(TEAM_FOLDER);
+        if (!Files.isDirectory(teamDir)) {
             return new ArrayList<>();
         }
+        // A shard whose live file is missing is still recoverable from its .bak
+        TreeSet<String> names = new TreeSet<>();
+        try (Stream<Path> files = Files.list(teamDir)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SHARD_SUFFIX + ".bak")) {
+                    name = name.substring(0, name.length() - ".bak".length());
+                }
+                if (name.endsWith(SHARD_SUFFIX) && !name.equals(TEAM_INDEX_FILE)) {
+                    names.add(name);
+                }
+            });
+        }
+        List<Path> shards = new ArrayList<>();
+        for (String name : names) {
+            shards.add(teamDir.resolve(name));
+        }
+        return shards;
+    }
 
-        long lastSaved = root.getLong("lastSaved");
-        int version = root.getInt("version");
-        TodoListMod.LOGGER.info("Loading task data, version {}, last saved: {}", version, lastSaved);
+    private static Map<String, List<Task>> groupByShard(List<Task> tasks) {
+        Map<String, List<Task>> shards = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            shards.computeIfAbsent(teamShardKey(task.getProjectId()), k -> new ArrayList<>()).add(task);
+        }
+        return shards;
+    }
 
-        NbtList taskList = root.getList("tasks", NbtElement.COMPOUND_TYPE);
-        List<Task> tasks = new ArrayList<>();
+    private List<Task> replayTeamJournal(Path journalFile, List<Task> tasks) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return tasks;
+        }
 
-        for (int i = 0; i < taskList.size(); i++) {
-            NbtCompound taskNbt = taskList.getCompound(i);
-            try {
-                Task task = Task.fromNbt(taskNbt);
-                tasks.add(task);
-            } catch (Exception e) {
-                TodoListMod.LOGGER.error("Failed to load task at index {}", i, e);
+        Map<String, Task> byId = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            byId.put(task.getId(), task);
+        }
+
+        long validBytes = 0;
+        int applied = 0;
+        int stale = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            while (true) {
+                int length = in.readInt();
+                int expectedCrc = in.readInt();
+                if (length <= 0 || length > MAX_JOURNAL_RECORD_BYTES) {
+                    break;
+                }
+                byte[] data = new byte[length];
+                in.readFully(data);
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                NbtCompound record = NbtIo.read(new DataInputStream(new ByteArrayInputStream(data)));
+                validBytes += 8 + length;
+
+                if (record.getLong("gen") != teamGeneration) {
+                    stale++;
+                    continue;
+                }
+                try {
+                    if ("put".equals(record.getString("op"))) {
+                        Task task = Task.fromNbt(record.getCompound("task"));
+                        byId.put(task.getId(), task);
+                    } else {
+                        byId.remove(record.getString("id"));
+                    }
+                    applied++;
+                } catch (Exception e) {
+                    TodoListMod.LOGGER.error("Failed to apply team journal record", e);
+                }
             }
+        } catch (EOFException ignored) {
+            // End of journal, or a record torn by a crash
+        }
+
+        long size = Files.size(journalFile);
+        if (validBytes < size) {
+            TodoListMod.LOGGER.warn("Discarding {} trailing bytes of damaged team journal", size - validBytes);
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+            }
+        }
+        TodoListMod.LOGGER.info("Replayed {} team journal records ({} stale)", applied, stale);
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Load tasks from a specific file
+     */
+    private List<Task> loadTasksFromFile(Path file) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        NbtCompound header = streamTasksFromFile(file, task -> {
+            tasks.add(task);
+            return true;
+        });
+        if (header == null) {
+            TodoListMod.LOGGER.warn("Failed to read task data from {}", file);
+            return tasks;
         }
 
-        TodoListMod.LOGGER.info("Successfully loaded {} tasks", tasks.size());
+        TodoListMod.LOGGER.info("Loaded {} tasks, version {}, last saved: {}",
+                tasks.size(), header.getInt("version"), header.getLong("lastSaved"));
         return tasks;
     }
 
+    /**
+     * Stream the tasks of a file into a visitor without building the whole NBT tree.
+     * If the live file turns out to be corrupt part-way, the backup is read next and
+     * only tasks not yet delivered are passed on.
+     *
+     * @return the file's non-task root entries, or null if it could not be read
+     */
+    private NbtCompound streamTasksFromFile(Path file, TaskVisitor visitor) throws IOException {
+        Set<String> seen = new HashSet<>();
+        return AtomicFiles.read(file, in -> TaskStreamReader.read(in, visitor, seen));
+    }
+
     /**
      * Delete player data (for server admin or player leaving)
      */
     public void deletePlayerTasks(UUID playerUuid) throws IOException {
         Path playersDir = dataDir.resolve(PLAYERS_FOLDER);
         Path playerFile = playersDir.resolve(playerUuid.toString() + ".dat");
-        if (Files.exists(playerFile)) {
-            Files.delete(playerFile);
+        if (AtomicFiles.delete(playerFile)) {
             TodoListMod.LOGGER.info("Deleted task data for player {}", playerUuid);
         }
     }
@@ -223,7 +581,7 @@ public class TaskStorage {
     public boolean hasPlayerTasks(UUID playerUuid) {
         Path playersDir = dataDir.resolve(PLAYERS_FOLDER);
         Path playerFile = playersDir.resolve(playerUuid.toString() + ".dat");
-        return Files.exists(playerFile);
+        return AtomicFiles.exists(playerFile);
     }
 
     /**
@@ -232,4 +590,15 @@ public class TaskStorage {
     public Path getDataDirectoryPath() {
         return dataDir;
     }
+
+    /**
+     * Receives tasks one at a time from a streaming load
+     */
+    @FunctionalInterface
+    public interface TaskVisitor {
+        /**
+         * @return false to stop reading the rest of the file
+         */
+        boolean visit(Task task);
+    }
 }
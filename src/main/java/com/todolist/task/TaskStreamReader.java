@@ -0,0 +1,94 @@
+package com.todolist.task;
+
+import com.todolist.TodoListMod;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtTagSizeTracker;
+import net.minecraft.nbt.NbtTypes;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Streaming reader for task files
+ *
+ * Version 1 files are NBT: the root compound is walked by hand and the "tasks" list decoded
+ * one entry at a time, so only a single task's NBT is alive at once instead of the whole tree.
+ * Every other root entry (lastSaved, version, generation, ...) is collected into a small header
+ * compound. Version 2 files are recognised by their magic and handed to {@link TaskBinaryCodec}.
+ */
+final class TaskStreamReader {
+    private static final String TASKS_KEY = "tasks";
+
+    private TaskStreamReader() {}
+
+    /**
+     * Read a task file, handing each task to the visitor until it asks to stop.
+     * Task ids already in {@code seen} are skipped and delivered ids are added to it.
+     *
+     * @return the non-task root entries
+     */
+    static NbtCompound read(InputStream in, TaskStorage.TaskVisitor visitor, Set<String> seen) throws IOException {
+        InputStream stream = in.markSupported() ? in : new BufferedInputStream(in);
+        DataInputStream input = new DataInputStream(stream);
+        stream.mark(4);
+        if (input.readInt() == TaskBinaryCodec.MAGIC) {
+            return TaskBinaryCodec.read(stream, visitor, seen);
+        }
+        stream.reset();
+
+        NbtCompound header = new NbtCompound();
+
+        if (input.readByte() != NbtElement.COMPOUND_TYPE) {
+            throw new IOException("Root tag must be a compound");
+        }
+        input.readUTF();
+
+        while (true) {
+            byte type = input.readByte();
+            if (type == NbtElement.END_TYPE) {
+                return header;
+            }
+            String name = input.readUTF();
+
+            if (type == NbtElement.LIST_TYPE && TASKS_KEY.equals(name)) {
+                if (!readTaskList(input, visitor, seen)) {
+                    // Visitor stopped early; the rest of the file is never decoded
+                    return header;
+                }
+            } else {
+                header.put(name, NbtTypes.byId(type).read(input, 1, NbtTagSizeTracker.EMPTY));
+            }
+        }
+    }
+
+    private static boolean readTaskList(DataInputStream input, TaskStorage.TaskVisitor visitor, Set<String> seen) throws IOException {
+        byte elementType = input.readByte();
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            if (elementType != NbtElement.COMPOUND_TYPE) {
+                NbtTypes.byId(elementType).read(input, 2, NbtTagSizeTracker.EMPTY);
+                continue;
+            }
+            NbtCompound taskNbt = NbtCompound.TYPE.read(input, 2, NbtTagSizeTracker.EMPTY);
+
+            Task task;
+            try {
+                task = Task.fromNbt(taskNbt);
+            } catch (Exception e) {
+                TodoListMod.LOGGER.error("Failed to load task at index {}", i, e);
+                continue;
+            }
+            if (!seen.add(task.getId())) {
+                continue;
+            }
+            if (!visitor.visit(task)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}